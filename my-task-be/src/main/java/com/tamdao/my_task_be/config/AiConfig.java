@@ -0,0 +1,54 @@
+package com.tamdao.my_task_be.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+@Configuration
+public class AiConfig {
+    
+    @Value("${app.groq.api-key:}")
+    private String apiKey;
+    
+    @Value("${app.groq.connect-timeout:5s}")
+    private Duration connectTimeout;
+    
+    @Value("${app.groq.read-timeout:60s}")
+    private Duration readTimeout;
+    
+    @Value("${app.groq.max-connections:50}")
+    private int maxConnections;
+    
+    @Bean(name = "groqWebClient")
+    public WebClient groqWebClient(WebClient.Builder builder) {
+        // Shared connection pool; fail instead of hanging when no connection frees up
+        ConnectionProvider provider = ConnectionProvider.builder("groq")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(connectTimeout)
+                .maxIdleTime(Duration.ofSeconds(30))
+                .build();
+        // responseTimeout applies per read, so it also works for streamed responses
+        HttpClient httpClient = HttpClient.create(provider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(readTimeout);
+        
+        return builder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .defaultHeaders(headers -> {
+                    headers.setContentType(MediaType.APPLICATION_JSON);
+                    if (apiKey != null && !apiKey.isEmpty()) {
+                        headers.set(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey);
+                    }
+                })
+                .build();
+    }
+}
@@ -0,0 +1,59 @@
+package com.tamdao.my_task_be.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+
+@Configuration
+public class DashboardConfig {
+    
+    @Value("${app.dashboard.virtual-threads:true}")
+    private boolean virtualThreads;
+    
+    // Sections running at once across the app; 0 = half of the Hikari pool
+    @Value("${app.dashboard.max-concurrent-sections:0}")
+    private int maxConcurrentSections;
+    
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int connectionPoolSize;
+    
+    @Bean(name = "dashboardExecutor")
+    public Executor dashboardExecutor() {
+        if (virtualThreads) {
+            // Virtual threads are cheap but connections are not, so still cap concurrent sections
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("dashboard-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(concurrencyLimit());
+            return executor;
+        }
+        
+        // Each section holds a connection, so threads stay within the dashboard's share of the pool
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrencyLimit());
+        executor.setMaxPoolSize(concurrencyLimit());
+        executor.setQueueCapacity(500);
+        executor.setThreadNamePrefix("dashboard-");
+        executor.initialize();
+        return executor;
+    }
+    
+    // Boot only creates applicationTaskExecutor when no Executor bean exists, so declare it for MVC async
+    @Lazy
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+    
+    private int concurrencyLimit() {
+        return maxConcurrentSections > 0 ? maxConcurrentSections : Math.max(1, connectionPoolSize / 2);
+    }
+}
@@ -0,0 +1,63 @@
+package com.tamdao.my_task_be.config;
+
+import com.tamdao.my_task_be.entity.DataBackfill;
+import com.tamdao.my_task_be.repository.DataBackfillRepository;
+import com.tamdao.my_task_be.service.DailyProductivityService;
+import com.tamdao.my_task_be.service.FinanceRollupService;
+import com.tamdao.my_task_be.service.HabitStreakService;
+import com.tamdao.my_task_be.service.SearchIndexService;
+import com.tamdao.my_task_be.service.ProjectTaskCounterListener;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntSupplier;
+
+// Runs each backfill once, before the web server starts, and records it in data_backfills
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DataBackfillRunner implements SmartInitializingSingleton {
+    
+    private final DataBackfillRepository dataBackfillRepository;
+    private final ProjectTaskCounterListener projectTaskCounterListener;
+    private final DailyProductivityService dailyProductivityService;
+    private final HabitStreakService habitStreakService;
+    private final FinanceRollupService financeRollupService;
+    private final SearchIndexService searchIndexService;
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        // Rename a step to run it again after its logic changes
+        Map<String, IntSupplier> backfills = new LinkedHashMap<>();
+        backfills.put("project-task-counters-v1", projectTaskCounterListener::rebuildCounters);
+        backfills.put("daily-productivity-v1", dailyProductivityService::rebuild);
+        backfills.put("habit-calendars-v1", habitStreakService::rebuild);
+        backfills.put("finance-monthly-rollup-v1", financeRollupService::rebuildAll);
+        backfills.put("search-documents-v1", searchIndexService::rebuild);
+        
+        backfills.forEach(this::runOnce);
+    }
+    
+    private void runOnce(String name, IntSupplier backfill) {
+        if (dataBackfillRepository.existsById(name)) {
+            return;
+        }
+        try {
+            int rows = backfill.getAsInt();
+            dataBackfillRepository.save(DataBackfill.builder()
+                    .name(name)
+                    .affectedRows(rows)
+                    .completedAt(LocalDateTime.now())
+                    .build());
+            log.info("Đã chạy backfill {} ({} dòng)", name, rows);
+        } catch (RuntimeException e) {
+            // Not recorded, so it runs again on the next boot
+            log.error("Backfill {} thất bại", name, e);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.tamdao.my_task_be.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+// Merges duplicate habit_logs rows before ddl-auto adds uk_habit_logs_habit_date, which fails while duplicates remain
+@Component(HabitLogMigration.BEAN_NAME)
+@RequiredArgsConstructor
+@Slf4j
+public class HabitLogMigration implements InitializingBean {
+
+    static final String BEAN_NAME = "habitLogMigration";
+    private static final String CONSTRAINT_NAME = "uk_habit_logs_habit_date";
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterPropertiesSet() {
+        try {
+            if (!tableExists() || constraintExists()) {
+                return;
+            }
+            // Plain JDBC transaction: JpaTransactionManager needs the EntityManagerFactory, which waits for this bean
+            TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+            Integer removed = transactionTemplate.execute(status -> mergeDuplicates());
+            if (removed != null && removed > 0) {
+                log.info("Đã gộp {} dòng habit_logs trùng ngày trước khi thêm {}", removed, CONSTRAINT_NAME);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Không gộp được habit_logs trùng ngày: {}", e.getMessage());
+        }
+    }
+
+    private int mergeDuplicates() {
+        // The lowest id of each (habit, day) keeps the summed count, the other rows are deleted
+        jdbcTemplate.update("UPDATE habit_logs keep JOIN (" +
+                "  SELECT MIN(id) AS id, SUM(COALESCE(count, 1)) AS total FROM habit_logs " +
+                "  GROUP BY habit_id, completed_date HAVING COUNT(*) > 1" +
+                ") dup ON dup.id = keep.id SET keep.count = dup.total");
+        return jdbcTemplate.update("DELETE extra FROM habit_logs extra JOIN habit_logs keep " +
+                "ON keep.habit_id = extra.habit_id AND keep.completed_date = extra.completed_date AND keep.id < extra.id");
+    }
+
+    private boolean tableExists() {
+        Integer tables = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.tables " +
+                "WHERE table_schema = DATABASE() AND table_name = 'habit_logs'", Integer.class);
+        return tables != null && tables > 0;
+    }
+
+    private boolean constraintExists() {
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.statistics " +
+                "WHERE table_schema = DATABASE() AND table_name = 'habit_logs' AND index_name = ?",
+                Integer.class, CONSTRAINT_NAME);
+        return existing != null && existing > 0;
+    }
+
+    // Makes the EntityManagerFactory, and so the schema update, wait for the migration
+    @Component
+    static class EntityManagerFactoryDependsOnMigration extends EntityManagerFactoryDependsOnPostProcessor {
+
+        EntityManagerFactoryDependsOnMigration() {
+            super(BEAN_NAME);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.tamdao.my_task_be.controller;
 
 import com.tamdao.my_task_be.dto.request.ChatRequest;
+import com.tamdao.my_task_be.dto.response.AiCacheStatsResponse;
 import com.tamdao.my_task_be.dto.response.ApiResponse;
 import com.tamdao.my_task_be.dto.response.ChatResponse;
 import com.tamdao.my_task_be.service.AiService;
@@ -8,8 +9,11 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 
@@ -29,9 +33,21 @@ public class AiController {
         return ResponseEntity.ok(ApiResponse.success("Phản hồi từ AI", response));
     }
 
+    @PostMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Chat với AI Assistant, nhận phản hồi dạng Server-Sent Events")
+    public Flux<ServerSentEvent<String>> chatStream(@RequestBody ChatRequest request) {
+        return aiService.chatStream(request.getMessage());
+    }
+
     @GetMapping("/history")
     @Operation(summary = "Lấy lịch sử chat")
     public ResponseEntity<ApiResponse<List<com.tamdao.my_task_be.entity.AiMessage>>> getHistory() {
         return ResponseEntity.ok(ApiResponse.success("Lấy lịch sử thành công", aiService.getHistory()));
     }
+
+    @GetMapping("/cache/stats")
+    @Operation(summary = "Thống kê cache câu trả lời AI (hit rate)")
+    public ResponseEntity<ApiResponse<AiCacheStatsResponse>> getCacheStats() {
+        return ResponseEntity.ok(ApiResponse.success("Lấy thống kê thành công", aiService.getCacheStats()));
+    }
 }
@@ -2,7 +2,10 @@ package com.tamdao.my_task_be.controller;
 
 import com.tamdao.my_task_be.dto.response.ApiResponse;
 import com.tamdao.my_task_be.dto.response.DashboardResponse;
+import com.tamdao.my_task_be.dto.response.ProductivityPointResponse;
+import com.tamdao.my_task_be.dto.response.TypeaheadItemResponse;
 import com.tamdao.my_task_be.service.DashboardService;
+import com.tamdao.my_task_be.service.TypeaheadService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -13,6 +16,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/dashboard")
 @RequiredArgsConstructor
@@ -21,6 +26,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class DashboardController {
     
     private final DashboardService dashboardService;
+    private final TypeaheadService typeaheadService;
     
     @GetMapping("/overview")
     @Operation(summary = "Lấy dữ liệu tổng quan Dashboard")
@@ -29,10 +35,27 @@ public class DashboardController {
         return ResponseEntity.ok(ApiResponse.success("Lấy dữ liệu dashboard thành công", data));
     }
 
+    @GetMapping("/productivity")
+    @Operation(summary = "Lấy xu hướng năng suất theo ngày")
+    public ResponseEntity<ApiResponse<List<ProductivityPointResponse>>> getProductivity(
+            @RequestParam(defaultValue = "7") int days) {
+        List<ProductivityPointResponse> data = dashboardService.getProductivityTrend(days);
+        return ResponseEntity.ok(ApiResponse.success("Lấy xu hướng năng suất thành công", data));
+    }
+
     @GetMapping("/search")
     @Operation(summary = "Tìm kiếm toàn cục Tasks và Projects")
     public ResponseEntity<ApiResponse<com.tamdao.my_task_be.dto.response.SearchResponse>> search(@RequestParam String query) {
         com.tamdao.my_task_be.dto.response.SearchResponse results = dashboardService.search(query);
         return ResponseEntity.ok(ApiResponse.success("Tìm kiếm thành công", results));
     }
+
+    @GetMapping("/search/typeahead")
+    @Operation(summary = "Gợi ý nhanh theo tiền tố tiêu đề Task, Project, Note và Goal")
+    public ResponseEntity<ApiResponse<List<TypeaheadItemResponse>>> typeahead(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit) {
+        List<TypeaheadItemResponse> items = typeaheadService.suggest(q, limit);
+        return ResponseEntity.ok(ApiResponse.success("Gợi ý thành công", items));
+    }
 }
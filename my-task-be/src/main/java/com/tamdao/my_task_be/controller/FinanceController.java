@@ -2,18 +2,31 @@ package com.tamdao.my_task_be.controller;
 
 import com.tamdao.my_task_be.dto.request.TransactionRequest;
 import com.tamdao.my_task_be.dto.response.ApiResponse;
+import com.tamdao.my_task_be.dto.response.MonthlyFinanceSummaryResponse;
+import com.tamdao.my_task_be.dto.response.TransactionImportResponse;
 import com.tamdao.my_task_be.dto.response.TransactionResponse;
 import com.tamdao.my_task_be.entity.FinanceCategory;
 import com.tamdao.my_task_be.service.FinanceService;
+import com.tamdao.my_task_be.service.TransactionExportService;
+import com.tamdao.my_task_be.service.TransactionImportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Map;
 
@@ -25,6 +38,8 @@ import java.util.Map;
 public class FinanceController {
     
     private final FinanceService financeService;
+    private final TransactionExportService transactionExportService;
+    private final TransactionImportService transactionImportService;
     
     // Transactions
     @GetMapping("/transactions")
@@ -36,6 +51,31 @@ public class FinanceController {
         return ResponseEntity.ok(ApiResponse.success("Lấy giao dịch thành công", transactions));
     }
     
+    @GetMapping("/transactions/export")
+    @Operation(summary = "Xuất giao dịch ra CSV hoặc NDJSON (dạng luồng)")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "csv") String format) {
+        TransactionExportService.ExportFormat exportFormat = TransactionExportService.ExportFormat.parse(format);
+        StreamingResponseBody body = transactionExportService.export(startDate, endDate, exportFormat);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"transactions." + exportFormat.getExtension() + "\"")
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                .body(body);
+    }
+    
+    @PostMapping(value = "/transactions/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Nhập giao dịch hàng loạt từ file CSV")
+    public ResponseEntity<ApiResponse<TransactionImportResponse>> importTransactions(
+            @RequestParam("file") MultipartFile file) throws IOException {
+        try (InputStream input = file.getInputStream()) {
+            TransactionImportResponse result = transactionImportService.importCsv(input);
+            return ResponseEntity.ok(ApiResponse.success("Nhập giao dịch hoàn tất", result));
+        }
+    }
+    
     @GetMapping("/transactions/{id}")
     @Operation(summary = "Lấy giao dịch theo ID")
     public ResponseEntity<ApiResponse<TransactionResponse>> getTransactionById(@PathVariable Long id) {
@@ -78,6 +118,22 @@ public class FinanceController {
         return ResponseEntity.ok(ApiResponse.success("Lấy tổng hợp thành công", summary));
     }
     
+    @GetMapping("/summary/range")
+    @Operation(summary = "Lấy tổng hợp thu chi theo từng tháng trong khoảng (yyyy-MM)")
+    public ResponseEntity<ApiResponse<List<MonthlyFinanceSummaryResponse>>> getSummaryRange(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+        List<MonthlyFinanceSummaryResponse> summary = financeService.getSummaryRange(from, to);
+        return ResponseEntity.ok(ApiResponse.success("Lấy tổng hợp thành công", summary));
+    }
+    
+    @PostMapping("/summary/rebuild")
+    @Operation(summary = "Tính lại bảng tổng hợp tháng từ toàn bộ giao dịch")
+    public ResponseEntity<ApiResponse<Integer>> rebuildSummary() {
+        int rows = financeService.rebuildSummary();
+        return ResponseEntity.ok(ApiResponse.success("Tính lại tổng hợp thành công", rows));
+    }
+    
     // Categories
     @GetMapping("/categories")
     @Operation(summary = "Lấy tất cả danh mục")
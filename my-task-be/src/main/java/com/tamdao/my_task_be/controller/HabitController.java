@@ -2,6 +2,7 @@ package com.tamdao.my_task_be.controller;
 
 import com.tamdao.my_task_be.dto.request.HabitRequest;
 import com.tamdao.my_task_be.dto.response.ApiResponse;
+import com.tamdao.my_task_be.dto.response.HabitCalendarResponse;
 import com.tamdao.my_task_be.dto.response.HabitResponse;
 import com.tamdao.my_task_be.entity.HabitLog;
 import com.tamdao.my_task_be.service.HabitService;
@@ -61,8 +62,10 @@ public class HabitController {
     
     @PostMapping("/{id}/checkin")
     @Operation(summary = "Check-in Habit (đánh dấu hoàn thành)")
-    public ResponseEntity<ApiResponse<HabitResponse>> checkIn(@PathVariable Long id) {
-        HabitResponse habit = habitService.checkIn(id);
+    public ResponseEntity<ApiResponse<HabitResponse>> checkIn(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        HabitResponse habit = habitService.checkIn(id, date);
         return ResponseEntity.ok(ApiResponse.success("Check-in thành công", habit));
     }
     
@@ -76,6 +79,23 @@ public class HabitController {
         return ResponseEntity.ok(ApiResponse.success("Lấy logs thành công", logs));
     }
     
+    @GetMapping("/{id}/calendar")
+    @Operation(summary = "Lấy lịch hoàn thành dạng bitset của Habit theo năm")
+    public ResponseEntity<ApiResponse<HabitCalendarResponse>> getHabitCalendar(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer year) {
+        HabitCalendarResponse calendar = habitService.getHabitCalendar(id, year != null ? year : LocalDate.now().getYear());
+        return ResponseEntity.ok(ApiResponse.success("Lấy lịch habit thành công", calendar));
+    }
+    
+    @GetMapping("/calendar")
+    @Operation(summary = "Lấy lịch hoàn thành của tất cả Habits trong năm (heatmap)")
+    public ResponseEntity<ApiResponse<List<HabitCalendarResponse>>> getGlobalCalendar(
+            @RequestParam(required = false) Integer year) {
+        List<HabitCalendarResponse> calendars = habitService.getGlobalHabitCalendars(year != null ? year : LocalDate.now().getYear());
+        return ResponseEntity.ok(ApiResponse.success("Lấy lịch tổng hợp thành công", calendars));
+    }
+    
     @GetMapping("/logs")
     @Operation(summary = "Lấy toàn bộ lịch sử check-in của user trong khoảng thời gian")
     public ResponseEntity<ApiResponse<List<HabitLog>>> getGlobalStats(
@@ -2,6 +2,7 @@ package com.tamdao.my_task_be.controller;
 
 import com.tamdao.my_task_be.dto.request.TaskRequest;
 import com.tamdao.my_task_be.dto.response.ApiResponse;
+import com.tamdao.my_task_be.dto.response.KanbanColumnResponse;
 import com.tamdao.my_task_be.dto.response.TaskResponse;
 import com.tamdao.my_task_be.entity.Task;
 import com.tamdao.my_task_be.service.TaskService;
@@ -47,6 +48,28 @@ public class TaskController {
         return ResponseEntity.ok(ApiResponse.success("Lấy tất cả Kanban tasks thành công", tasks));
     }
     
+    @GetMapping("/kanban/{status}")
+    @Operation(summary = "Lấy một cột Kanban của user theo status, phân trang bằng cursor id")
+    public ResponseEntity<ApiResponse<KanbanColumnResponse>> getKanbanColumn(
+            @PathVariable Task.TaskStatus status,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) Integer size) {
+        KanbanColumnResponse column = taskService.getKanbanColumn(null, status, null, afterId, size);
+        return ResponseEntity.ok(ApiResponse.success("Lấy cột Kanban thành công", column));
+    }
+    
+    @GetMapping("/project/{projectId}/kanban/{status}")
+    @Operation(summary = "Lấy một cột Kanban của Project theo status, phân trang bằng cursor (position, id)")
+    public ResponseEntity<ApiResponse<KanbanColumnResponse>> getProjectKanbanColumn(
+            @PathVariable Long projectId,
+            @PathVariable Task.TaskStatus status,
+            @RequestParam(required = false) Integer afterPosition,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) Integer size) {
+        KanbanColumnResponse column = taskService.getKanbanColumn(projectId, status, afterPosition, afterId, size);
+        return ResponseEntity.ok(ApiResponse.success("Lấy cột Kanban thành công", column));
+    }
+    
     @GetMapping("/{id}")
     @Operation(summary = "Lấy Task theo ID")
     public ResponseEntity<ApiResponse<TaskResponse>> getTaskById(@PathVariable Long id) {
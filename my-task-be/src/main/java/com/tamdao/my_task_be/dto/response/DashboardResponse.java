@@ -39,4 +39,7 @@ public class DashboardResponse {
     // Productivity Analysis
     private int productivityScore;
     private List<Integer> productivityTrend; // Last 7 days scores
+
+    // Sections that timed out or failed and were returned empty
+    private List<String> unavailableSections;
 }
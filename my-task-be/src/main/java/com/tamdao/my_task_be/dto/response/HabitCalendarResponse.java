@@ -0,0 +1,37 @@
+package com.tamdao.my_task_be.dto.response;
+
+import com.tamdao.my_task_be.entity.HabitCalendar;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HabitCalendarResponse {
+    private Long habitId;
+    private Integer year;
+    // 46-byte bitset (base64 in JSON); bit (dayOfYear - 1) marks a completed day
+    private byte[] days;
+    private Integer completedDays;
+    
+    public static HabitCalendarResponse fromEntity(HabitCalendar calendar) {
+        return HabitCalendarResponse.builder()
+                .habitId(calendar.getHabit().getId())
+                .year(calendar.getYear())
+                .days(calendar.getDays())
+                .completedDays(calendar.completedCount())
+                .build();
+    }
+    
+    public static HabitCalendarResponse empty(Long habitId, int year) {
+        return HabitCalendarResponse.builder()
+                .habitId(habitId)
+                .year(year)
+                .days(new byte[HabitCalendar.BYTES_PER_YEAR])
+                .completedDays(0)
+                .build();
+    }
+}
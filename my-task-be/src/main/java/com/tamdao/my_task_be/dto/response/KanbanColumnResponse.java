@@ -0,0 +1,22 @@
+package com.tamdao.my_task_be.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class KanbanColumnResponse {
+    private String status;
+    private List<TaskCardResponse> tasks;
+    private boolean hasMore;
+    
+    // Cursor of the last card: (position, id) in a project, id only for the user column
+    private Integer nextPosition;
+    private Long nextId;
+}
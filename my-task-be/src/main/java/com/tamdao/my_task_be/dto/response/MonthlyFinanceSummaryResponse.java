@@ -0,0 +1,23 @@
+package com.tamdao.my_task_be.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthlyFinanceSummaryResponse {
+    private Integer year;
+    private Integer month;
+    private BigDecimal income;
+    private BigDecimal expense;
+    private BigDecimal balance;
+    private Long incomeCount;
+    private Long expenseCount;
+    private Long transactionCount;
+}
@@ -0,0 +1,36 @@
+package com.tamdao.my_task_be.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductivityPointResponse {
+    private LocalDate date;
+    private int tasksCompleted;
+    private int habitCheckins;
+    private int focusMinutes;
+    private int score;
+    
+    public static ProductivityPointResponse of(LocalDate date, int tasksCompleted, int habitCheckins, int focusMinutes) {
+        return ProductivityPointResponse.builder()
+                .date(date)
+                .tasksCompleted(tasksCompleted)
+                .habitCheckins(habitCheckins)
+                .focusMinutes(focusMinutes)
+                .score(calculateScore(tasksCompleted, habitCheckins, focusMinutes))
+                .build();
+    }
+    
+    // Task (15pts), Habit (10pts), Pomodoro (1pt per 3min), capped at 100 for a "perfect day"
+    private static int calculateScore(long tasks, long habits, long focusMinutes) {
+        double score = (tasks * 15) + (habits * 10) + (focusMinutes / 3.0);
+        return (int) Math.min(score, 100);
+    }
+}
@@ -33,13 +33,8 @@ public class ProjectResponse {
     private LocalDateTime createdAt;
     
     public static ProjectResponse fromEntity(Project project) {
-        int taskCount = project.getTasks() != null ? project.getTasks().size() : 0;
-        long completedCount = project.getTasks() != null 
-                ? project.getTasks().stream()
-                    .filter(t -> "DONE".equals(t.getStatus().name()))
-                    .count()
-                : 0;
-        
+        int taskCount = project.getTaskCount() != null ? project.getTaskCount() : 0;
+        int completedCount = project.getDoneCount() != null ? project.getDoneCount() : 0;
         double progress = taskCount > 0 ? (double) completedCount * 100 / taskCount : 0;
         
         return ProjectResponse.builder()
@@ -57,7 +52,7 @@ public class ProjectResponse {
                 .startDate(project.getStartDate())
                 .dueDate(project.getDueDate())
                 .taskCount(taskCount)
-                .completedTaskCount((int) completedCount)
+                .completedTaskCount(completedCount)
                 .progress(progress)
                 .createdAt(project.getCreatedAt())
                 .build();
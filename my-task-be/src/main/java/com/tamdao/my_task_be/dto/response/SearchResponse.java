@@ -14,6 +14,9 @@ import java.util.List;
 public class SearchResponse {
     private List<TaskItem> tasks;
     private List<ProjectItem> projects;
+    private List<NoteItem> notes;
+    // Ranked across all kinds, with <mark>-highlighted snippets
+    private List<Hit> hits;
 
     @Data
     @Builder
@@ -37,4 +40,28 @@ public class SearchResponse {
         private String color;
         private String icon;
     }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class NoteItem {
+        private Long id;
+        private String title;
+        private String snippet;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Hit {
+        private String kind;
+        private Long id;
+        private Long parentId;
+        private String title;
+        private String titleHighlight;
+        private String snippet;
+        private Double score;
+    }
 }
@@ -0,0 +1,39 @@
+package com.tamdao.my_task_be.dto.response;
+
+import com.tamdao.my_task_be.entity.Task;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Kanban card: TaskResponse without description and labels
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskCardResponse {
+    private Long id;
+    private String title;
+    private String status;
+    private String priority;
+    private Long projectId;
+    private String projectName;
+    private Long assigneeId;
+    private String assigneeName;
+    private String assigneeAvatar;
+    private LocalDate dueDate;
+    private Integer position;
+    
+    // JPQL constructor expression
+    public TaskCardResponse(Long id, String title, Task.TaskStatus status, Task.TaskPriority priority,
+                            Long projectId, String projectName,
+                            Long assigneeId, String assigneeName, String assigneeAvatar,
+                            LocalDate dueDate, Integer position) {
+        // Legacy rows may lack status/priority; don't let one break the column
+        this(id, title, status != null ? status.name() : null, priority != null ? priority.name() : null,
+                projectId, projectName,
+                assigneeId, assigneeName, assigneeAvatar, dueDate, position);
+    }
+}
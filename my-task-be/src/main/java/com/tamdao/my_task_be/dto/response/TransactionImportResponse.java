@@ -0,0 +1,28 @@
+package com.tamdao.my_task_be.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionImportResponse {
+    private Integer totalRows;
+    private Integer importedRows;
+    private Integer failedRows;
+    // Only the first errors are kept so the response doesn't grow with the file
+    private List<RowError> errors;
+    
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RowError {
+        private Integer line;
+        private String message;
+    }
+}
@@ -0,0 +1,18 @@
+package com.tamdao.my_task_be.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TypeaheadItemResponse {
+    private String kind;
+    private Long id;
+    // Task's project; null for other kinds
+    private Long parentId;
+    private String title;
+}
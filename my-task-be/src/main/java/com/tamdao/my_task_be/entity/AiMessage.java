@@ -22,9 +22,13 @@ public class AiMessage {
     @Column(columnDefinition = "TEXT")
     private String content;
     
-    // "user", "assistant", "system"
+    // "user", "assistant", "system", "summary"
     private String role;
     
+    // For "summary" rows: id of the last message folded into the summary
+    @Column(name = "summarized_until_id")
+    private Long summarizedUntilId;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
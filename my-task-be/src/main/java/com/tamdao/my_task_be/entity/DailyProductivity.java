@@ -0,0 +1,41 @@
+package com.tamdao.my_task_be.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "daily_productivity", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_daily_productivity_user_day", columnNames = {"user_id", "day"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyProductivity {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+    
+    @Column(nullable = false)
+    private LocalDate day;
+    
+    @Column(name = "tasks_completed", nullable = false)
+    @Builder.Default
+    private Integer tasksCompleted = 0;
+    
+    @Column(name = "habit_checkins", nullable = false)
+    @Builder.Default
+    private Integer habitCheckins = 0;
+    
+    @Column(name = "focus_minutes", nullable = false)
+    @Builder.Default
+    private Integer focusMinutes = 0;
+}
@@ -0,0 +1,27 @@
+package com.tamdao.my_task_be.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// One completed DataBackfillRunner step
+@Entity
+@Table(name = "data_backfills")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DataBackfill {
+    
+    @Id
+    @Column(length = 100)
+    private String name;
+    
+    @Column(name = "affected_rows")
+    private Integer affectedRows;
+    
+    @Column(name = "completed_at", nullable = false)
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,61 @@
+package com.tamdao.my_task_be.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+// Monthly totals per (user, category, type); the month is stored as yyyyMM
+@Entity
+@Table(name = "finance_monthly_rollup", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_finance_rollup_user_period_category_type",
+            columnNames = {"user_id", "period_month", "category_id", "type"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FinanceMonthlyRollup {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+    
+    @Column(name = "period_month", nullable = false)
+    private Integer period;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id", nullable = false)
+    private FinanceCategory category;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Transaction.TransactionType type;
+    
+    @Column(nullable = false, precision = 17, scale = 2)
+    @Builder.Default
+    private BigDecimal total = BigDecimal.ZERO;
+    
+    @Column(name = "transaction_count", nullable = false)
+    @Builder.Default
+    private Long transactionCount = 0L;
+    
+    public static int periodOf(YearMonth yearMonth) {
+        return yearMonth.getYear() * 100 + yearMonth.getMonthValue();
+    }
+    
+    public static int periodOf(LocalDate date) {
+        return periodOf(YearMonth.from(date));
+    }
+    
+    public static YearMonth toYearMonth(int period) {
+        return YearMonth.of(period / 100, period % 100);
+    }
+}
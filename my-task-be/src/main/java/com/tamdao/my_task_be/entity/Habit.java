@@ -52,6 +52,12 @@ public class Habit {
     @Builder.Default
     private Boolean active = true;
     
+    // Optimistic lock: concurrent streak/calendar updates fail instead of overwriting each other
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    @Builder.Default
+    private Long version = 0L;
+    
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,75 @@
+package com.tamdao.my_task_be.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+
+// One habit's completions for one year; bit (dayOfYear - 1) is set when that day has a check-in
+@Entity
+@Table(name = "habit_calendars", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_habit_calendars_habit_year", columnNames = {"habit_id", "calendar_year"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HabitCalendar {
+    
+    // 366 days -> 46 bytes
+    public static final int BYTES_PER_YEAR = 46;
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "habit_id", nullable = false)
+    private Habit habit;
+    
+    @Column(name = "calendar_year", nullable = false)
+    private Integer year;
+    
+    @Column(nullable = false, length = BYTES_PER_YEAR)
+    @Builder.Default
+    private byte[] days = new byte[BYTES_PER_YEAR];
+    
+    // Optimistic lock: concurrent streak/calendar updates fail instead of overwriting each other
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    @Builder.Default
+    private Long version = 0L;
+    
+    public boolean isCompleted(LocalDate date) {
+        int index = date.getDayOfYear() - 1;
+        return (days[index >> 3] & (1 << (index & 7))) != 0;
+    }
+    
+    // Returns false if the day was already marked
+    public boolean markCompleted(LocalDate date) {
+        if (isCompleted(date)) {
+            return false;
+        }
+        int index = date.getDayOfYear() - 1;
+        // Replace the array so Hibernate sees the change
+        byte[] updated = days.clone();
+        updated[index >> 3] |= (byte) (1 << (index & 7));
+        days = updated;
+        return true;
+    }
+    
+    public int completedCount() {
+        int count = 0;
+        for (byte b : days) {
+            count += Integer.bitCount(b & 0xFF);
+        }
+        return count;
+    }
+    
+    public BitSet toBitSet() {
+        // BitSet.valueOf uses the same little-endian bit order as days
+        return BitSet.valueOf(days);
+    }
+}
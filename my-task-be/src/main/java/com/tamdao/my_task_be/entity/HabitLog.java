@@ -8,7 +8,9 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "habit_logs")
+@Table(name = "habit_logs", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_habit_logs_habit_date", columnNames = {"habit_id", "completed_date"})
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -3,6 +3,7 @@ package com.tamdao.my_task_be.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -11,6 +12,7 @@ import java.util.Set;
 
 @Entity
 @Table(name = "projects")
+@DynamicUpdate
 @Getter
 @Setter
 @NoArgsConstructor
@@ -54,6 +56,15 @@ public class Project {
     @Column(name = "due_date")
     private LocalDate dueDate;
     
+    // Denormalized counters, maintained by ProjectTaskCounterListener
+    @Column(name = "task_count", nullable = false)
+    @Builder.Default
+    private Integer taskCount = 0;
+    
+    @Column(name = "done_count", nullable = false)
+    @Builder.Default
+    private Integer doneCount = 0;
+    
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,57 @@
+package com.tamdao.my_task_be.entity;
+
+import com.tamdao.my_task_be.event.ContentChangedEvent;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+// folded_* hold accent-free text; their FULLTEXT indexes are created by SearchIndexService
+@Entity
+@Table(name = "search_documents", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_search_documents_kind_ref", columnNames = {"kind", "ref_id"})
+}, indexes = {
+    @Index(name = "idx_search_documents_user", columnList = "user_id"),
+    @Index(name = "idx_search_documents_parent", columnList = "parent_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SearchDocument {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ContentChangedEvent.Kind kind;
+    
+    @Column(name = "ref_id", nullable = false)
+    private Long refId;
+    
+    @Column(name = "parent_id")
+    private Long parentId;
+    
+    @Column(nullable = false)
+    private String title;
+    
+    @Column(columnDefinition = "LONGTEXT")
+    private String body;
+    
+    @Column(name = "folded_title", nullable = false)
+    private String foldedTitle;
+    
+    @Column(name = "folded_body", columnDefinition = "LONGTEXT")
+    private String foldedBody;
+    
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -2,6 +2,7 @@ package com.tamdao.my_task_be.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -12,7 +13,10 @@ import java.util.List;
 import java.util.Set;
 
 @Entity
-@Table(name = "tasks")
+@Table(name = "tasks", indexes = {
+    @Index(name = "idx_tasks_project_status_position", columnList = "project_id, status, position, id"),
+    @Index(name = "idx_tasks_status_id", columnList = "status, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -56,6 +60,9 @@ public class Task {
     @Builder.Default
     private Integer position = 0;
     
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+    
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -65,6 +72,7 @@ public class Task {
     private LocalDateTime updatedAt;
     
     @ManyToMany
+    @BatchSize(size = 100)
     @JoinTable(
         name = "task_labels",
         joinColumns = @JoinColumn(name = "task_id"),
@@ -1,5 +1,6 @@
 package com.tamdao.my_task_be.entity;
 
+import com.tamdao.my_task_be.security.UserCacheListener;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -11,6 +12,7 @@ import java.util.Set;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserCacheListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,27 @@
+package com.tamdao.my_task_be.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Titled content created, updated or deleted; feeds search and typeahead. title/body are null on delete
+@Getter
+@AllArgsConstructor
+public class ContentChangedEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    public enum Kind {
+        TASK, NOTE, PROJECT, GOAL
+    }
+
+    private final Type type;
+    private final Kind kind;
+    private final Long id;
+    private final Long userId;
+    // Task's project; null for other kinds
+    private final Long parentId;
+    private final String title;
+    private final String body;
+}
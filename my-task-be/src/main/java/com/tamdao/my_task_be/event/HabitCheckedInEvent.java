@@ -0,0 +1,15 @@
+package com.tamdao.my_task_be.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+@Getter
+@AllArgsConstructor
+public class HabitCheckedInEvent {
+    private final Long habitId;
+    private final Long userId;
+    private final LocalDate date;
+    private final boolean firstOfDay;
+}
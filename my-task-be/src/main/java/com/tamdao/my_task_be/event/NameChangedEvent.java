@@ -0,0 +1,17 @@
+package com.tamdao.my_task_be.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// A folder, finance category or workspace was created, renamed or deleted; projects use ContentChangedEvent
+@Getter
+@AllArgsConstructor
+public class NameChangedEvent {
+
+    public enum Kind {
+        FOLDER, CATEGORY, WORKSPACE, PROJECT
+    }
+
+    private final Kind kind;
+    private final Long userId;
+}
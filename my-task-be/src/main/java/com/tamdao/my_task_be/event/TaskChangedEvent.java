@@ -0,0 +1,26 @@
+package com.tamdao.my_task_be.event;
+
+import com.tamdao.my_task_be.entity.Task;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+// Published in the writing transaction; previous* are null on create, current values null on delete
+@Getter
+@AllArgsConstructor
+public class TaskChangedEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final Type type;
+    private final Long taskId;
+    private final Long projectId;
+    private final Long userId;
+    private final Task.TaskStatus previousStatus;
+    private final Task.TaskStatus status;
+    private final LocalDateTime previousCompletedAt;
+    private final LocalDateTime completedAt;
+}
@@ -0,0 +1,33 @@
+package com.tamdao.my_task_be.event;
+
+import com.tamdao.my_task_be.entity.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Published in the writing transaction; previous is null on create, current is null on delete
+@Getter
+@AllArgsConstructor
+public class TransactionChangedEvent {
+
+    private final Long transactionId;
+    private final Long userId;
+    private final Snapshot previous;
+    private final Snapshot current;
+
+    @Getter
+    @AllArgsConstructor
+    public static class Snapshot {
+        private final LocalDate date;
+        private final Long categoryId;
+        private final Transaction.TransactionType type;
+        private final BigDecimal amount;
+
+        public static Snapshot of(Transaction transaction) {
+            return new Snapshot(transaction.getTransactionDate(), transaction.getCategory().getId(),
+                    transaction.getType(), transaction.getAmount());
+        }
+    }
+}
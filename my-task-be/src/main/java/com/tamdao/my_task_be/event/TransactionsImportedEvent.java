@@ -0,0 +1,13 @@
+package com.tamdao.my_task_be.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// CSV import bypasses FinanceService, so there is no TransactionChangedEvent per row
+@Getter
+@AllArgsConstructor
+public class TransactionsImportedEvent {
+
+    private final Long userId;
+    private final int importedRows;
+}
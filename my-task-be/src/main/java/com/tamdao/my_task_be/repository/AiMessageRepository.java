@@ -5,11 +5,15 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface AiMessageRepository extends JpaRepository<AiMessage, Long> {
-    List<AiMessage> findByUserIdOrderByCreatedAtDesc(Long userId, Pageable pageable);
+    List<AiMessage> findByUserIdAndRoleInOrderByCreatedAtDesc(Long userId, Collection<String> roles, Pageable pageable);
+    List<AiMessage> findByUserIdAndRoleInAndIdGreaterThanOrderByIdDesc(Long userId, Collection<String> roles, Long afterId, Pageable pageable);
+    Optional<AiMessage> findFirstByUserIdAndRoleOrderByIdDesc(Long userId, String role);
     List<AiMessage> findByUserIdOrderByCreatedAtAsc(Long userId); // For full history if needed, but risky
     void deleteByUserId(Long userId);
 }
@@ -0,0 +1,72 @@
+package com.tamdao.my_task_be.repository;
+
+import com.tamdao.my_task_be.entity.DailyProductivity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyProductivityRepository extends JpaRepository<DailyProductivity, Long> {
+    
+    @Query("SELECT d FROM DailyProductivity d WHERE d.user.id = :userId AND d.day BETWEEN :startDate AND :endDate ORDER BY d.day ASC")
+    List<DailyProductivity> findByUserIdAndDayRange(@Param("userId") Long userId,
+                                                    @Param("startDate") LocalDate startDate,
+                                                    @Param("endDate") LocalDate endDate);
+    
+    @Modifying
+    @Query(value = "INSERT INTO daily_productivity (user_id, day, tasks_completed, habit_checkins, focus_minutes) " +
+                   "VALUES (:userId, :day, GREATEST(:tasks, 0), GREATEST(:habits, 0), GREATEST(:focus, 0)) " +
+                   "ON DUPLICATE KEY UPDATE " +
+                   "tasks_completed = GREATEST(tasks_completed + :tasks, 0), " +
+                   "habit_checkins = GREATEST(habit_checkins + :habits, 0), " +
+                   "focus_minutes = GREATEST(focus_minutes + :focus, 0)",
+           nativeQuery = true)
+    int increment(@Param("userId") Long userId,
+                  @Param("day") LocalDate day,
+                  @Param("tasks") int tasks,
+                  @Param("habits") int habits,
+                  @Param("focus") int focus);
+    
+    // Tasks deleted with their project publish no event: subtract its completed tasks before the delete
+    @Modifying
+    @Query(value = "UPDATE daily_productivity d JOIN (" +
+                   "  SELECT DATE(t.completed_at) AS day, COUNT(*) AS tasks FROM tasks t " +
+                   "  WHERE t.project_id = :projectId AND t.status = 'DONE' AND t.completed_at IS NOT NULL " +
+                   "  GROUP BY DATE(t.completed_at)" +
+                   ") src ON src.day = d.day " +
+                   "SET d.tasks_completed = GREATEST(d.tasks_completed - src.tasks, 0) " +
+                   "WHERE d.user_id = :userId",
+           nativeQuery = true)
+    int subtractCompletedTasksOfProject(@Param("userId") Long userId, @Param("projectId") Long projectId);
+    
+    // Older DONE tasks have no completed_at; use updated_at
+    @Modifying
+    @Query(value = "UPDATE tasks SET completed_at = updated_at WHERE status = 'DONE' AND completed_at IS NULL",
+           nativeQuery = true)
+    int backfillTaskCompletedAt();
+    
+    @Modifying
+    @Query(value = "INSERT INTO daily_productivity (user_id, day, tasks_completed, habit_checkins, focus_minutes) " +
+                   "SELECT src.user_id, src.day, SUM(src.tasks), SUM(src.habits), SUM(src.focus) FROM (" +
+                   "  SELECT p.created_by AS user_id, DATE(t.completed_at) AS day, COUNT(*) AS tasks, 0 AS habits, 0 AS focus " +
+                   "  FROM tasks t JOIN projects p ON p.id = t.project_id " +
+                   "  WHERE t.status = 'DONE' AND t.completed_at IS NOT NULL GROUP BY p.created_by, DATE(t.completed_at) " +
+                   "  UNION ALL " +
+                   "  SELECT h.user_id, hl.completed_date, 0, COUNT(*), 0 " +
+                   "  FROM habit_logs hl JOIN habits h ON h.id = hl.habit_id GROUP BY h.user_id, hl.completed_date " +
+                   "  UNION ALL " +
+                   "  SELECT ps.user_id, DATE(ps.started_at), 0, 0, SUM(ps.duration) " +
+                   "  FROM pomodoro_sessions ps WHERE ps.completed_at IS NOT NULL GROUP BY ps.user_id, DATE(ps.started_at)" +
+                   ") src GROUP BY src.user_id, src.day " +
+                   "ON DUPLICATE KEY UPDATE " +
+                   "tasks_completed = VALUES(tasks_completed), " +
+                   "habit_checkins = VALUES(habit_checkins), " +
+                   "focus_minutes = VALUES(focus_minutes)",
+           nativeQuery = true)
+    int rebuildFromHistory();
+}
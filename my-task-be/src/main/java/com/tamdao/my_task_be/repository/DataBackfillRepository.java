@@ -0,0 +1,9 @@
+package com.tamdao.my_task_be.repository;
+
+import com.tamdao.my_task_be.entity.DataBackfill;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DataBackfillRepository extends JpaRepository<DataBackfill, String> {
+}
@@ -15,4 +15,14 @@ public interface FinanceCategoryRepository extends JpaRepository<FinanceCategory
     
     @Query("SELECT c FROM FinanceCategory c WHERE c.user.id = :userId OR c.user IS NULL ORDER BY c.name ASC")
     List<FinanceCategory> findByUserIdOrUserIdIsNullOrderByNameAsc(@Param("userId") Long userId);
+    
+    // Includes shared categories (user_id NULL); the user's own come first so they win ties
+    @Query("SELECT c.id AS id, c.name AS title, c.type AS type FROM FinanceCategory c " +
+           "WHERE c.user.id = :userId OR c.user IS NULL " +
+           "ORDER BY CASE WHEN c.user IS NULL THEN 1 ELSE 0 END, c.name ASC")
+    List<CategoryName> findNamesByUserId(@Param("userId") Long userId);
+    
+    interface CategoryName extends TitleRow {
+        FinanceCategory.CategoryType getType();
+    }
 }
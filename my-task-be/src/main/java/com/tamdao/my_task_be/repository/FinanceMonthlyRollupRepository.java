@@ -0,0 +1,65 @@
+package com.tamdao.my_task_be.repository;
+
+import com.tamdao.my_task_be.entity.FinanceCategory;
+import com.tamdao.my_task_be.entity.FinanceMonthlyRollup;
+import com.tamdao.my_task_be.entity.Transaction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface FinanceMonthlyRollupRepository extends JpaRepository<FinanceMonthlyRollup, Long> {
+    
+    @Query("SELECT r.period AS period, r.type AS type, SUM(r.total) AS total, SUM(r.transactionCount) AS count " +
+           "FROM FinanceMonthlyRollup r WHERE r.user.id = :userId AND r.period BETWEEN :fromPeriod AND :toPeriod " +
+           "GROUP BY r.period, r.type")
+    List<PeriodTypeTotal> sumByPeriodAndType(@Param("userId") Long userId,
+                                             @Param("fromPeriod") int fromPeriod,
+                                             @Param("toPeriod") int toPeriod);
+    
+    @Query("SELECT r.category.type AS type, SUM(r.total) AS total FROM FinanceMonthlyRollup r " +
+           "WHERE r.user.id = :userId AND r.period = :period GROUP BY r.category.type")
+    List<CategoryTypeTotal> sumByCategoryType(@Param("userId") Long userId, @Param("period") int period);
+    
+    @Modifying
+    @Query(value = "INSERT INTO finance_monthly_rollup (user_id, period_month, category_id, type, total, transaction_count) " +
+                   "VALUES (:userId, :period, :categoryId, :type, :amount, :count) " +
+                   "ON DUPLICATE KEY UPDATE total = total + :amount, transaction_count = transaction_count + :count",
+           nativeQuery = true)
+    int applyDelta(@Param("userId") Long userId,
+                   @Param("period") int period,
+                   @Param("categoryId") Long categoryId,
+                   @Param("type") String type,
+                   @Param("amount") BigDecimal amount,
+                   @Param("count") int count);
+    
+    @Modifying
+    @Query("DELETE FROM FinanceMonthlyRollup r WHERE r.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+    
+    @Modifying
+    @Query(value = "INSERT INTO finance_monthly_rollup (user_id, period_month, category_id, type, total, transaction_count) " +
+                   "SELECT t.user_id, YEAR(t.transaction_date) * 100 + MONTH(t.transaction_date), t.category_id, t.type, " +
+                   "SUM(t.amount), COUNT(*) FROM transactions t " +
+                   "WHERE (:userId IS NULL OR t.user_id = :userId) " +
+                   "GROUP BY t.user_id, YEAR(t.transaction_date) * 100 + MONTH(t.transaction_date), t.category_id, t.type",
+           nativeQuery = true)
+    int rebuildFromTransactions(@Param("userId") Long userId);
+    
+    interface PeriodTypeTotal {
+        Integer getPeriod();
+        Transaction.TransactionType getType();
+        BigDecimal getTotal();
+        Long getCount();
+    }
+    
+    interface CategoryTypeTotal {
+        FinanceCategory.CategoryType getType();
+        BigDecimal getTotal();
+    }
+}
@@ -2,6 +2,8 @@ package com.tamdao.my_task_be.repository;
 
 import com.tamdao.my_task_be.entity.Goal;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,4 +12,7 @@ import java.util.List;
 public interface GoalRepository extends JpaRepository<Goal, Long> {
     List<Goal> findByUserIdOrderByCreatedAtDesc(Long userId);
     List<Goal> findByUserIdAndStatusOrderByTargetDateAsc(Long userId, Goal.GoalStatus status);
+    
+    @Query("SELECT g.id AS id, g.title AS title FROM Goal g WHERE g.user.id = :userId")
+    List<TitleRow> findTitlesByUserId(@Param("userId") Long userId);
 }
@@ -0,0 +1,26 @@
+package com.tamdao.my_task_be.repository;
+
+import com.tamdao.my_task_be.entity.HabitCalendar;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface HabitCalendarRepository extends JpaRepository<HabitCalendar, Long> {
+    Optional<HabitCalendar> findByHabitIdAndYear(Long habitId, Integer year);
+    List<HabitCalendar> findByHabitIdOrderByYearAsc(Long habitId);
+    boolean existsByHabitId(Long habitId);
+    
+    @Query("SELECT c FROM HabitCalendar c WHERE c.habit.user.id = :userId AND c.habit.active = true AND c.year = :year")
+    List<HabitCalendar> findActiveByUserIdAndYear(@Param("userId") Long userId, @Param("year") Integer year);
+    
+    @Modifying
+    @Query("DELETE FROM HabitCalendar c WHERE c.habit.id IN :habitIds")
+    int deleteByHabitIdIn(@Param("habitIds") Collection<Long> habitIds);
+}
@@ -2,11 +2,13 @@ package com.tamdao.my_task_be.repository;
 
 import com.tamdao.my_task_be.entity.HabitLog;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,6 +17,17 @@ public interface HabitLogRepository extends JpaRepository<HabitLog, Long> {
     List<HabitLog> findByHabitIdOrderByCompletedDateDesc(Long habitId);
     Optional<HabitLog> findByHabitIdAndCompletedDate(Long habitId, LocalDate date);
     
+    // Atomic check-in: returns 1 when the log is created, 2 when its count is incremented
+    @Modifying
+    @Query(value = "INSERT INTO habit_logs (habit_id, completed_date, count, created_at) " +
+                   "VALUES (:habitId, :date, 1, NOW()) " +
+                   "ON DUPLICATE KEY UPDATE count = count + 1",
+           nativeQuery = true)
+    int incrementCount(@Param("habitId") Long habitId, @Param("date") LocalDate date);
+    
+    @Query("SELECT hl.count FROM HabitLog hl WHERE hl.habit.id = :habitId AND hl.completedDate = :date")
+    Integer findCountByHabitIdAndCompletedDate(@Param("habitId") Long habitId, @Param("date") LocalDate date);
+    
     @Query("SELECT hl FROM HabitLog hl WHERE hl.habit.id = :habitId AND hl.completedDate BETWEEN :startDate AND :endDate")
     List<HabitLog> findByHabitIdAndDateRange(@Param("habitId") Long habitId, 
                                               @Param("startDate") LocalDate startDate, 
@@ -30,4 +43,24 @@ public interface HabitLogRepository extends JpaRepository<HabitLog, Long> {
     List<HabitLog> findByUserIdAndDateRange(@Param("userId") Long userId, 
                                             @Param("startDate") LocalDate startDate, 
                                             @Param("endDate") LocalDate endDate);
+    
+    @Query("SELECT hl.habit.id AS habitId, hl.completedDate AS completedDate, hl.count AS count FROM HabitLog hl " +
+           "WHERE hl.habit.id IN :habitIds AND hl.completedDate BETWEEN :startDate AND :endDate")
+    List<HabitDayCount> findCountsByHabitIdsAndDateRange(@Param("habitIds") Collection<Long> habitIds,
+                                                          @Param("startDate") LocalDate startDate,
+                                                          @Param("endDate") LocalDate endDate);
+    
+    @Query("SELECT hl.habit.id AS habitId, hl.completedDate AS completedDate, hl.count AS count FROM HabitLog hl " +
+           "WHERE hl.habit.id IN :habitIds")
+    List<HabitDayCount> findDayCountsByHabitIds(@Param("habitIds") Collection<Long> habitIds);
+    
+    default List<HabitDayCount> findCountsByHabitIdsAndDate(Collection<Long> habitIds, LocalDate date) {
+        return findCountsByHabitIdsAndDateRange(habitIds, date, date);
+    }
+    
+    interface HabitDayCount {
+        Long getHabitId();
+        LocalDate getCompletedDate();
+        Integer getCount();
+    }
 }
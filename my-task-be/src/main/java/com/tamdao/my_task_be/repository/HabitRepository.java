@@ -1,7 +1,10 @@
 package com.tamdao.my_task_be.repository;
 
 import com.tamdao.my_task_be.entity.Habit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,4 +14,14 @@ public interface HabitRepository extends JpaRepository<Habit, Long> {
     List<Habit> findByUserIdAndActiveOrderByCreatedAtDesc(Long userId, Boolean active);
     List<Habit> findByUserIdAndActiveTrue(Long userId);
     List<Habit> findByUserIdOrderByCreatedAtDesc(Long userId);
+    List<Habit> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+    
+    @Query("SELECT COUNT(h) AS total, COALESCE(MAX(h.currentStreak), 0) AS maxStreak " +
+           "FROM Habit h WHERE h.user.id = :userId AND h.active = true")
+    ActiveHabitSummary summarizeActiveByUserId(@Param("userId") Long userId);
+    
+    interface ActiveHabitSummary {
+        Long getTotal();
+        Integer getMaxStreak();
+    }
 }
@@ -2,6 +2,8 @@ package com.tamdao.my_task_be.repository;
 
 import com.tamdao.my_task_be.entity.NoteFolder;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,4 +11,7 @@ import java.util.List;
 @Repository
 public interface NoteFolderRepository extends JpaRepository<NoteFolder, Long> {
     List<NoteFolder> findByUserIdOrderByNameAsc(Long userId);
+    
+    @Query("SELECT f.id AS id, f.name AS title FROM NoteFolder f WHERE f.user.id = :userId ORDER BY f.name ASC")
+    List<TitleRow> findNamesByUserId(@Param("userId") Long userId);
 }
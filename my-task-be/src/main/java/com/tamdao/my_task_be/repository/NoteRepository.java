@@ -2,6 +2,8 @@ package com.tamdao.my_task_be.repository;
 
 import com.tamdao.my_task_be.entity.Note;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,4 +16,7 @@ public interface NoteRepository extends JpaRepository<Note, Long> {
     List<Note> findByFolderIdOrderByUpdatedAtDesc(Long folderId);
     List<Note> findByUserIdAndFolderIsNullOrderByUpdatedAtDesc(Long userId);
     List<Note> findByUserIdAndFolderIdOrderByIsPinnedDescUpdatedAtDesc(Long userId, Long folderId);
+    
+    @Query("SELECT n.id AS id, n.title AS title FROM Note n WHERE n.user.id = :userId")
+    List<TitleRow> findTitlesByUserId(@Param("userId") Long userId);
 }
@@ -1,9 +1,14 @@
 package com.tamdao.my_task_be.repository;
 
 import com.tamdao.my_task_be.entity.Project;
+import com.tamdao.my_task_be.entity.Task;
 import com.tamdao.my_task_be.entity.User;
 import com.tamdao.my_task_be.entity.Workspace;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,10 +16,34 @@ import java.util.List;
 @Repository
 public interface ProjectRepository extends JpaRepository<Project, Long> {
     List<Project> findByWorkspaceIdOrderByCreatedAtDesc(Long workspaceId);
+    @EntityGraph(attributePaths = {"workspace", "createdBy"})
     List<Project> findByWorkspaceOrderByCreatedAtDesc(Workspace workspace);
     List<Project> findByCreatedByIdOrderByCreatedAtDesc(Long userId);
+    @EntityGraph(attributePaths = {"workspace", "createdBy"})
     List<Project> findByCreatedByOrderByCreatedAtDesc(User createdBy);
     List<Project> findByCreatedByAndStatusOrderByCreatedAtDesc(User createdBy, Project.ProjectStatus status);
     
-    List<Project> findByCreatedByIdAndNameContainingIgnoreCase(Long userId, String query);
+    
+    @Modifying
+    @Query("UPDATE Project p SET p.taskCount = p.taskCount + :taskDelta, p.doneCount = p.doneCount + :doneDelta " +
+           "WHERE p.id = :projectId")
+    int adjustTaskCounts(@Param("projectId") Long projectId,
+                         @Param("taskDelta") int taskDelta,
+                         @Param("doneDelta") int doneDelta);
+    
+    @Modifying
+    @Query("UPDATE Project p SET p.status = CASE WHEN p.doneCount >= p.taskCount THEN :completed ELSE :active END " +
+           "WHERE p.id = :projectId AND p.taskCount > 0 AND p.status IN (:active, :completed)")
+    int syncStatusFromCounts(@Param("projectId") Long projectId,
+                             @Param("active") Project.ProjectStatus active,
+                             @Param("completed") Project.ProjectStatus completed);
+    
+    @Modifying
+    @Query("UPDATE Project p SET " +
+           "p.taskCount = (SELECT COUNT(t) FROM Task t WHERE t.project = p), " +
+           "p.doneCount = (SELECT COUNT(t) FROM Task t WHERE t.project = p AND t.status = :done)")
+    int rebuildTaskCounts(@Param("done") Task.TaskStatus done);
+    
+    @Query("SELECT p.id AS id, p.name AS title FROM Project p WHERE p.createdBy.id = :userId ORDER BY p.createdAt DESC")
+    List<TitleRow> findTitlesByUserId(@Param("userId") Long userId);
 }
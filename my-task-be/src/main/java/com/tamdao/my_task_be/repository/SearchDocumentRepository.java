@@ -0,0 +1,71 @@
+package com.tamdao.my_task_be.repository;
+
+import com.tamdao.my_task_be.entity.SearchDocument;
+import com.tamdao.my_task_be.event.ContentChangedEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SearchDocumentRepository extends JpaRepository<SearchDocument, Long> {
+    
+    @Modifying
+    @Query(value = "INSERT INTO search_documents (user_id, kind, ref_id, parent_id, title, body, folded_title, folded_body, updated_at) " +
+                   "VALUES (:userId, :kind, :refId, :parentId, :title, :body, :foldedTitle, :foldedBody, NOW()) " +
+                   "ON DUPLICATE KEY UPDATE user_id = VALUES(user_id), parent_id = VALUES(parent_id), " +
+                   "title = VALUES(title), body = VALUES(body), folded_title = VALUES(folded_title), " +
+                   "folded_body = VALUES(folded_body), updated_at = NOW()",
+           nativeQuery = true)
+    int upsert(@Param("userId") Long userId,
+               @Param("kind") String kind,
+               @Param("refId") Long refId,
+               @Param("parentId") Long parentId,
+               @Param("title") String title,
+               @Param("body") String body,
+               @Param("foldedTitle") String foldedTitle,
+               @Param("foldedBody") String foldedBody);
+    
+    @Modifying
+    @Query("DELETE FROM SearchDocument d WHERE d.kind = :kind AND d.refId = :refId")
+    int deleteByKindAndRefId(@Param("kind") ContentChangedEvent.Kind kind, @Param("refId") Long refId);
+    
+    @Modifying
+    @Query("DELETE FROM SearchDocument d WHERE d.kind = :kind AND d.parentId = :parentId")
+    int deleteByKindAndParentId(@Param("kind") ContentChangedEvent.Kind kind, @Param("parentId") Long parentId);
+    
+    // Ranking: a title match weighs 3x a body match
+    @Query(value = "SELECT d.kind AS kind, d.ref_id AS refId, d.parent_id AS parentId, d.title AS title, d.body AS body, " +
+                   "(MATCH(d.folded_title) AGAINST (:query IN BOOLEAN MODE) * 3 " +
+                   " + MATCH(d.folded_body) AGAINST (:query IN BOOLEAN MODE)) AS score " +
+                   "FROM search_documents d " +
+                   "WHERE d.user_id = :userId AND MATCH(d.folded_title, d.folded_body) AGAINST (:query IN BOOLEAN MODE) " +
+                   "ORDER BY score DESC LIMIT :limit",
+           nativeQuery = true)
+    List<SearchHitRow> searchFulltext(@Param("userId") Long userId,
+                                      @Param("query") String query,
+                                      @Param("limit") int limit);
+    
+    @Query(value = "SELECT d.kind AS kind, d.ref_id AS refId, d.parent_id AS parentId, d.title AS title, d.body AS body, " +
+                   "(CASE WHEN d.folded_title LIKE :pattern THEN 3 ELSE 0 END " +
+                   " + CASE WHEN d.folded_body LIKE :pattern THEN 1 ELSE 0 END) AS score " +
+                   "FROM search_documents d " +
+                   "WHERE d.user_id = :userId AND (d.folded_title LIKE :pattern OR d.folded_body LIKE :pattern) " +
+                   "ORDER BY score DESC, d.updated_at DESC LIMIT :limit",
+           nativeQuery = true)
+    List<SearchHitRow> searchLike(@Param("userId") Long userId,
+                                  @Param("pattern") String pattern,
+                                  @Param("limit") int limit);
+    
+    interface SearchHitRow {
+        String getKind();
+        Long getRefId();
+        Long getParentId();
+        String getTitle();
+        String getBody();
+        Double getScore();
+    }
+}
@@ -1,6 +1,9 @@
 package com.tamdao.my_task_be.repository;
 
+import com.tamdao.my_task_be.dto.response.TaskCardResponse;
 import com.tamdao.my_task_be.entity.Task;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -8,17 +11,26 @@ import org.springframework.stereotype.Repository;
 
 import com.tamdao.my_task_be.entity.Project;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface TaskRepository extends JpaRepository<Task, Long> {
+    // List queries fetch project and assignee; labels are batch-loaded (see Task.labels)
+    @EntityGraph(attributePaths = {"project", "assignee"})
     List<Task> findByProjectIdOrderByPositionAsc(Long projectId);
+    
+    @EntityGraph(attributePaths = {"project", "assignee"})
     List<Task> findByProjectOrderByPositionAsc(Project project);
+    
+    @EntityGraph(attributePaths = {"project", "assignee"})
     List<Task> findByAssigneeIdOrderByDueDateAsc(Long assigneeId);
     
+    @EntityGraph(attributePaths = {"project", "assignee"})
     @Query("SELECT t FROM Task t WHERE t.project.id = :projectId AND t.status = :status ORDER BY t.position ASC")
     List<Task> findByProjectIdAndStatus(@Param("projectId") Long projectId, @Param("status") Task.TaskStatus status);
     
+    @EntityGraph(attributePaths = {"project", "assignee"})
     @Query("SELECT t FROM Task t WHERE t.project.createdBy.id = :userId ORDER BY t.position ASC")
     List<Task> findAllByUserId(@Param("userId") Long userId);
     
@@ -34,6 +46,52 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
     Long countByProject(Project project);
     long countByProjectAndStatusNot(Project project, Task.TaskStatus status);
     
-    @Query("SELECT t FROM Task t WHERE t.project.createdBy.id = :userId AND LOWER(t.title) LIKE LOWER(CONCAT('%', :query, '%'))")
-    List<Task> searchTasks(@Param("userId") Long userId, @Param("query") String query);
+    // position is per project, so the user-wide column pages by id (idx_tasks_status_id)
+    @Query("SELECT new com.tamdao.my_task_be.dto.response.TaskCardResponse(" +
+           "t.id, t.title, t.status, t.priority, p.id, p.name, a.id, a.fullName, a.avatarUrl, t.dueDate, t.position) " +
+           "FROM Task t JOIN t.project p LEFT JOIN t.assignee a " +
+           "WHERE p.createdBy.id = :userId AND t.status = :status AND t.id > :afterId " +
+           "ORDER BY t.id ASC")
+    List<TaskCardResponse> findKanbanCardsByUser(@Param("userId") Long userId,
+                                                 @Param("status") Task.TaskStatus status,
+                                                 @Param("afterId") Long afterId,
+                                                 Pageable pageable);
+    
+    // Cursor (position, id); afterId null = first page. NULL positions sort first, so a null afterPosition stays in that group
+    @Query("SELECT new com.tamdao.my_task_be.dto.response.TaskCardResponse(" +
+           "t.id, t.title, t.status, t.priority, p.id, p.name, a.id, a.fullName, a.avatarUrl, t.dueDate, t.position) " +
+           "FROM Task t JOIN t.project p LEFT JOIN t.assignee a " +
+           "WHERE p.id = :projectId AND t.status = :status " +
+           "AND (:afterId IS NULL " +
+           "  OR (:afterPosition IS NULL AND (t.position IS NOT NULL OR t.id > :afterId)) " +
+           "  OR t.position > :afterPosition " +
+           "  OR (t.position = :afterPosition AND t.id > :afterId)) " +
+           "ORDER BY t.position ASC, t.id ASC")
+    List<TaskCardResponse> findKanbanCardsByProject(@Param("projectId") Long projectId,
+                                                    @Param("status") Task.TaskStatus status,
+                                                    @Param("afterPosition") Integer afterPosition,
+                                                    @Param("afterId") Long afterId,
+                                                    Pageable pageable);
+    
+    @EntityGraph(attributePaths = {"project"})
+    @Query("SELECT t FROM Task t WHERE t.id IN :ids")
+    List<Task> findWithProjectByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT t.status AS status, COUNT(t) AS total FROM Task t WHERE t.assignee.id = :userId GROUP BY t.status")
+    List<StatusCount> countByStatusForAssignee(@Param("userId") Long userId);
+    
+    @EntityGraph(attributePaths = {"project", "assignee"})
+    List<Task> findTop5ByAssigneeIdAndStatusNotOrderByDueDateAsc(Long assigneeId, Task.TaskStatus status);
+    
+    interface StatusCount {
+        Task.TaskStatus getStatus();
+        Long getTotal();
+    }
+    
+    @Query("SELECT t.id AS id, t.title AS title, t.project.id AS projectId FROM Task t WHERE t.project.createdBy.id = :userId")
+    List<TaskTitle> findTitlesByUserId(@Param("userId") Long userId);
+    
+    interface TaskTitle extends TitleRow {
+        Long getProjectId();
+    }
 }
@@ -0,0 +1,6 @@
+package com.tamdao.my_task_be.repository;
+
+public interface TitleRow {
+    Long getId();
+    String getTitle();
+}
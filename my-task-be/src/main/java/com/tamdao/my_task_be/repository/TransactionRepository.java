@@ -1,14 +1,18 @@
 package com.tamdao.my_task_be.repository;
 
 import com.tamdao.my_task_be.entity.Transaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
@@ -21,13 +25,28 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
                                                 @Param("startDate") LocalDate startDate, 
                                                 @Param("endDate") LocalDate endDate);
     
-    @Query("SELECT SUM(t.amount) FROM Transaction t WHERE t.user.id = :userId AND t.category.type = 'INCOME' AND t.transactionDate BETWEEN :startDate AND :endDate")
-    BigDecimal sumIncomeByUserAndDateRange(@Param("userId") Long userId, 
-                                           @Param("startDate") LocalDate startDate, 
-                                           @Param("endDate") LocalDate endDate);
+    // Integer.MIN_VALUE enables MySQL Connector/J row streaming
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t.id AS id, t.transactionDate AS transactionDate, t.type AS type, t.amount AS amount, " +
+           "c.name AS categoryName, t.note AS note, t.description AS description " +
+           "FROM Transaction t JOIN t.category c WHERE t.user.id = :userId " +
+           "AND (:startDate IS NULL OR t.transactionDate >= :startDate) " +
+           "AND (:endDate IS NULL OR t.transactionDate <= :endDate) " +
+           "ORDER BY t.transactionDate ASC, t.id ASC")
+    Stream<ExportRow> streamForExport(@Param("userId") Long userId,
+                                      @Param("startDate") LocalDate startDate,
+                                      @Param("endDate") LocalDate endDate);
     
-    @Query("SELECT SUM(t.amount) FROM Transaction t WHERE t.user.id = :userId AND t.category.type = 'EXPENSE' AND t.transactionDate BETWEEN :startDate AND :endDate")
-    BigDecimal sumExpenseByUserAndDateRange(@Param("userId") Long userId, 
-                                            @Param("startDate") LocalDate startDate, 
-                                            @Param("endDate") LocalDate endDate);
+    interface ExportRow {
+        Long getId();
+        LocalDate getTransactionDate();
+        Transaction.TransactionType getType();
+        BigDecimal getAmount();
+        String getCategoryName();
+        String getNote();
+        String getDescription();
+    }
 }
@@ -3,6 +3,8 @@ package com.tamdao.my_task_be.repository;
 import com.tamdao.my_task_be.entity.User;
 import com.tamdao.my_task_be.entity.Workspace;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,4 +13,7 @@ import java.util.List;
 public interface WorkspaceRepository extends JpaRepository<Workspace, Long> {
     List<Workspace> findByOwnerIdOrderByCreatedAtDesc(Long ownerId);
     List<Workspace> findByOwnerOrderByCreatedAtDesc(User owner);
+    
+    @Query("SELECT w.id AS id, w.name AS title FROM Workspace w WHERE w.owner.id = :ownerId ORDER BY w.id ASC")
+    List<TitleRow> findNamesByOwnerId(@Param("ownerId") Long ownerId);
 }
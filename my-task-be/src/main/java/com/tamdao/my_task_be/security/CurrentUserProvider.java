@@ -0,0 +1,36 @@
+package com.tamdao.my_task_be.security;
+
+import com.tamdao.my_task_be.entity.User;
+import com.tamdao.my_task_be.exception.BadRequestException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+// The principal is loaded by JwtAuthenticationFilter, so no DB lookup here
+@Component
+@RequiredArgsConstructor
+public class CurrentUserProvider {
+
+    private final UserCache userCache;
+
+    public User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            throw new BadRequestException("Không tìm thấy người dùng");
+        }
+        if (authentication.getPrincipal() instanceof UserPrincipal principal && principal.getUser() != null) {
+            return principal.getUser();
+        }
+        return userCache.findByEmail(authentication.getName())
+                .orElseThrow(() -> new BadRequestException("Không tìm thấy người dùng"));
+    }
+
+    public Long getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.getId();
+        }
+        return getCurrentUser().getId();
+    }
+}
@@ -1,11 +1,13 @@
 package com.tamdao.my_task_be.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -23,6 +25,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtTokenProvider tokenProvider;
     private final CustomUserDetailsService userDetailsService;
+    private final TokenDenyList tokenDenyList;
+    
+    @Value("${app.jwt.stateless:false}")
+    private boolean stateless;
     
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -31,15 +37,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
             
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String email = tokenProvider.getEmailFromToken(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(email);
-                
-                UsernamePasswordAuthenticationToken authentication = 
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            Claims claims = StringUtils.hasText(jwt) ? tokenProvider.validateAndGetClaims(jwt) : null;
+            
+            if (claims != null) {
+                UserDetails userDetails = resolveUserDetails(claims);
                 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                if (userDetails != null) {
+                    UsernamePasswordAuthenticationToken authentication = 
+                            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
             }
         } catch (Exception ex) {
             log.error("Không thể xác thực người dùng", ex);
@@ -48,6 +57,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
     
+    private UserDetails resolveUserDetails(Claims claims) {
+        UserPrincipal principal = stateless ? tokenProvider.getPrincipalFromClaims(claims) : null;
+        UserDetails userDetails = principal != null
+                ? principal
+                : userDetailsService.loadUserByUsername(claims.getSubject());
+        
+        Long userId = userDetails instanceof UserPrincipal p ? p.getId() : null;
+        if (!userDetails.isEnabled() || tokenDenyList.isRevoked(userId, claims.getIssuedAt())) {
+            log.warn("Token của người dùng {} đã bị thu hồi hoặc tài khoản bị khóa", claims.getSubject());
+            return null;
+        }
+        return userDetails;
+    }
+    
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -1,21 +1,32 @@
 package com.tamdao.my_task_be.security;
 
+import com.tamdao.my_task_be.entity.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Component
 @Slf4j
 public class JwtTokenProvider {
     
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ACTIVE = "act";
+    public static final String CLAIM_ROLES = "roles";
+    
     @Value("${app.jwt.secret}")
     private String jwtSecret;
     
@@ -25,30 +36,62 @@ public class JwtTokenProvider {
     @Value("${app.jwt.refresh-expiration}")
     private long refreshExpiration;
     
-    private SecretKey getSigningKey() {
+    private SecretKey signingKey;
+    
+    private JwtParser jwtParser;
+    
+    @PostConstruct
+    void init() {
         byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
+        this.signingKey = Keys.hmacShaKeyFor(keyBytes);
+        // JwtParser is immutable and thread-safe, so one instance serves every request
+        this.jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+    }
+    
+    private SecretKey getSigningKey() {
+        return signingKey;
     }
     
     public String generateAccessToken(Authentication authentication) {
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        return generateToken(userDetails.getUsername(), jwtExpiration);
+        if (userDetails instanceof UserPrincipal principal) {
+            return generateToken(principal.getEmail(), jwtExpiration, principalClaims(principal));
+        }
+        return generateToken(userDetails.getUsername(), jwtExpiration, Map.of());
+    }
+    
+    public String generateAccessToken(User user) {
+        return generateToken(user.getEmail(), jwtExpiration, principalClaims(new UserPrincipal(user)));
     }
     
     public String generateAccessToken(String email) {
-        return generateToken(email, jwtExpiration);
+        return generateToken(email, jwtExpiration, Map.of());
     }
     
     public String generateRefreshToken(String email) {
-        return generateToken(email, refreshExpiration);
+        return generateToken(email, refreshExpiration, Map.of());
     }
     
-    private String generateToken(String subject, long expiration) {
+    private Map<String, Object> principalClaims(UserPrincipal principal) {
+        List<String> roles = principal.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList());
+        return Map.of(
+                CLAIM_USER_ID, principal.getId(),
+                CLAIM_ACTIVE, principal.isActive(),
+                CLAIM_ROLES, roles
+        );
+    }
+    
+    private String generateToken(String subject, long expiration, Map<String, Object> claims) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expiration);
         
         return Jwts.builder()
                 .subject(subject)
+                .claims(claims)
                 .issuedAt(now)
                 .expiration(expiryDate)
                 .signWith(getSigningKey())
@@ -56,30 +99,47 @@ public class JwtTokenProvider {
     }
     
     public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.getSubject();
+        return getClaimsFromToken(token).getSubject();
+    }
+    
+    public Claims getClaimsFromToken(String token) {
+        return jwtParser.parseSignedClaims(token).getPayload();
+    }
+    
+    // Builds the principal from verified claims; null when a claim is missing (refresh or old tokens)
+    @SuppressWarnings("unchecked")
+    public UserPrincipal getPrincipalFromClaims(Claims claims) {
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        Boolean active = claims.get(CLAIM_ACTIVE, Boolean.class);
+        List<String> roles = claims.get(CLAIM_ROLES, List.class);
+        if (userId == null || active == null || roles == null) {
+            return null;
+        }
+        return new UserPrincipal(userId.longValue(), claims.getSubject(), active, roles);
     }
     
     public boolean validateToken(String token) {
+        return validateAndGetClaims(token) != null;
+    }
+    
+    // Verifies signature and expiry in one parse; null when the token is invalid
+    public Claims validateAndGetClaims(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
+            return jwtParser.parseSignedClaims(token).getPayload();
         } catch (MalformedJwtException ex) {
             log.error("Token JWT không hợp lệ");
+        } catch (SignatureException ex) {
+            log.error("Chữ ký JWT không hợp lệ");
         } catch (ExpiredJwtException ex) {
             log.error("Token JWT đã hết hạn");
         } catch (UnsupportedJwtException ex) {
             log.error("Token JWT không được hỗ trợ");
         } catch (IllegalArgumentException ex) {
             log.error("JWT claims string rỗng");
+        } catch (JwtException ex) {
+            // e.g. WeakKeyException when the header names an algorithm stronger than our key
+            log.error("Token JWT không hợp lệ: {}", ex.getMessage());
         }
-        return false;
+        return null;
     }
 }
@@ -0,0 +1,40 @@
+package com.tamdao.my_task_be.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+
+// Per-instance, in-memory deny-list for stateless tokens; entries expire with the access token
+@Component
+public class TokenDenyList {
+
+    private final Cache<Long, Long> revokedAt;
+
+    public TokenDenyList(@Value("${app.jwt.expiration}") long jwtExpiration) {
+        this.revokedAt = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(jwtExpiration))
+                .build();
+    }
+
+    public void revokeUser(Long userId) {
+        if (userId != null) {
+            revokedAt.put(userId, System.currentTimeMillis());
+        }
+    }
+
+    public boolean isRevoked(Long userId, Date issuedAt) {
+        if (userId == null) {
+            return false;
+        }
+        Long revokedMillis = revokedAt.getIfPresent(userId);
+        if (revokedMillis == null) {
+            return false;
+        }
+        // iat only has second precision
+        return issuedAt == null || issuedAt.getTime() <= revokedMillis;
+    }
+}
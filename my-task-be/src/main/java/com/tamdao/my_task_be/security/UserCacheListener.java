@@ -0,0 +1,31 @@
+package com.tamdao.my_task_be.security;
+
+import com.tamdao.my_task_be.entity.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+// Hibernate creates this while building the EntityManagerFactory; look the caches up lazily to avoid a cycle
+@Component
+@RequiredArgsConstructor
+public class UserCacheListener {
+
+    private final ObjectProvider<UserCache> userCache;
+    private final ObjectProvider<TokenDenyList> tokenDenyList;
+
+    @PostUpdate
+    public void onUserUpdated(User user) {
+        userCache.ifAvailable(cache -> cache.evict(user.getEmail()));
+        if (!Boolean.TRUE.equals(user.getActive())) {
+            tokenDenyList.ifAvailable(denyList -> denyList.revokeUser(user.getId()));
+        }
+    }
+
+    @PostRemove
+    public void onUserRemoved(User user) {
+        userCache.ifAvailable(cache -> cache.evict(user.getEmail()));
+        tokenDenyList.ifAvailable(denyList -> denyList.revokeUser(user.getId()));
+    }
+}
@@ -4,19 +4,31 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tamdao.my_task_be.dto.request.*;
 import com.tamdao.my_task_be.dto.response.*;
 import com.tamdao.my_task_be.entity.*;
-import com.tamdao.my_task_be.repository.*;
+import com.tamdao.my_task_be.exception.BadRequestException;
+import com.tamdao.my_task_be.util.TextFolding;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class AiActionService {
 
+    private static final int MAX_PLAN_ACTIONS = 50;
+    private static final int MAX_SUMMARY_LINES = 10;
+
     private final TaskService taskService;
     private final NoteService noteService;
     private final FinanceService financeService;
@@ -24,163 +36,262 @@ public class AiActionService {
     private final ProjectService projectService;
     private final GoalService goalService;
 
-    private final ProjectRepository projectRepository;
-    private final NoteFolderRepository noteFolderRepository;
-    private final FinanceCategoryRepository financeCategoryRepository;
-    private final WorkspaceRepository workspaceRepository;
-    
+    private final NameResolver nameResolver;
+
     private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+
+    public record PlannedAction(String action, Map<String, Object> payload) {
+    }
 
     public String performAction(String action, Map<String, Object> payload, User user) {
-        try {
-            switch (action.toUpperCase()) {
-                case "CREATE_TASK":
-                    return createTask(payload, user);
-                case "CREATE_NOTE":
-                    return createNote(payload, user);
-                case "ADD_TRANSACTION":
-                    return addTransaction(payload, user);
-                case "CREATE_HABIT":
-                    return createHabit(payload, user);
-                case "CREATE_PROJECT":
-                    return createProject(payload, user);
-                case "CREATE_GOAL":
-                     return createGoal(payload, user);
-                default:
-                    return "Hành động '" + action + "' chưa được hỗ trợ.";
+        return performActions(List.of(new PlannedAction(action, payload)), user);
+    }
+
+    // Validates the whole plan first, then creates everything in one transaction
+    public String performActions(List<PlannedAction> actions, User user) {
+        if (actions.isEmpty()) {
+            return "Không có hành động nào để thực hiện.";
+        }
+        if (actions.size() > MAX_PLAN_ACTIONS) {
+            return "Kế hoạch có quá nhiều hành động (tối đa " + MAX_PLAN_ACTIONS + ").";
+        }
+
+        Plan plan = new Plan(user);
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < actions.size(); i++) {
+            try {
+                prepare(actions.get(i), plan);
+            } catch (BadRequestException e) {
+                errors.add(actions.size() == 1 ? e.getMessage() : (i + 1) + ". " + e.getMessage());
+            }
+        }
+        if (!errors.isEmpty()) {
+            if (actions.size() == 1) {
+                return errors.get(0);
             }
+            return "Chưa thực hiện hành động nào vì kế hoạch có lỗi:\n- " + String.join("\n- ", errors);
+        }
+
+        try {
+            List<String> lines = transactionTemplate.execute(status -> execute(plan));
+            return summarize(lines);
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Failed to execute AI action plan", e);
             return "Lỗi khi thực hiện hành động: " + e.getMessage();
         }
     }
 
-    private String createTask(Map<String, Object> payload, User user) {
-        TaskRequest request = objectMapper.convertValue(payload, TaskRequest.class);
+    private void prepare(PlannedAction planned, Plan plan) {
+        String action = planned.action() != null ? planned.action().toUpperCase() : "";
+        Map<String, Object> payload = planned.payload() != null ? planned.payload() : Map.of();
+        switch (action) {
+            case "CREATE_TASK" -> plan.tasks.add(prepareTask(payload, plan));
+            case "CREATE_NOTE" -> plan.notes.add(prepareNote(payload, plan));
+            case "ADD_TRANSACTION" -> plan.transactions.add(prepareTransaction(payload, plan));
+            case "CREATE_HABIT" -> plan.habits.add(prepareHabit(payload));
+            case "CREATE_PROJECT" -> plan.projects.add(prepareProject(payload, plan));
+            case "CREATE_GOAL" -> plan.goals.add(validate(convert(payload, GoalRequest.class)));
+            default -> throw new BadRequestException("Hành động '" + planned.action() + "' chưa được hỗ trợ.");
+        }
+    }
 
+    private List<String> execute(Plan plan) {
+        User user = plan.user;
+        List<String> lines = new ArrayList<>();
+        List<ProjectResponse> projects = plan.projects.isEmpty()
+                ? List.of() : projectService.createProjects(plan.projects, user);
+        projects.forEach(p -> lines.add("Đã tạo dự án: **" + p.getName() + "**."));
+        if (!plan.tasks.isEmpty()) {
+            // Tasks of a project created in this plan only get its id after the save
+            List<TaskRequest> tasks = plan.tasks.stream()
+                    .map(task -> {
+                        if (task.projectIndex() != null) {
+                            task.request().setProjectId(projects.get(task.projectIndex()).getId());
+                        }
+                        return task.request();
+                    })
+                    .collect(Collectors.toList());
+            taskService.createTasks(tasks, user)
+                    .forEach(t -> lines.add("Đã tạo công việc: **" + t.getTitle() + "** trong dự án _" + t.getProjectName() + "_."));
+        }
+        if (!plan.notes.isEmpty()) {
+            noteService.createNotes(plan.notes, user)
+                    .forEach(n -> lines.add("Đã tạo ghi chú: **" + n.getTitle() + "**."));
+        }
+        if (!plan.transactions.isEmpty()) {
+            financeService.createTransactions(plan.transactions, user)
+                    .forEach(t -> lines.add("Đã thêm giao dịch: " + t.getAmount() + " VND (" + t.getType() + ")."));
+        }
+        if (!plan.habits.isEmpty()) {
+            habitService.createHabits(plan.habits, user)
+                    .forEach(h -> lines.add("Đã tạo thói quen: **" + h.getName() + "**."));
+        }
+        if (!plan.goals.isEmpty()) {
+            goalService.createGoals(plan.goals, user)
+                    .forEach(g -> lines.add("Đã tạo mục tiêu: **" + g.getTitle() + "**."));
+        }
+        return lines;
+    }
+
+    private static String summarize(List<String> lines) {
+        if (lines.size() == 1) {
+            return lines.get(0);
+        }
+        StringBuilder sb = new StringBuilder("Đã thực hiện ").append(lines.size()).append(" hành động:");
+        lines.stream().limit(MAX_SUMMARY_LINES).forEach(line -> sb.append("\n- ").append(line));
+        if (lines.size() > MAX_SUMMARY_LINES) {
+            sb.append("\n- ... và ").append(lines.size() - MAX_SUMMARY_LINES).append(" hành động khác.");
+        }
+        return sb.toString();
+    }
+
+    private PlannedTask prepareTask(Map<String, Object> payload, Plan plan) {
+        TaskRequest request = convert(payload, TaskRequest.class);
+
+        Integer projectIndex = null;
         if (request.getProjectId() == null) {
-            List<Project> projects = projectRepository.findByCreatedByOrderByCreatedAtDesc(user);
-            if (projects.isEmpty()) {
-                return "Bạn chưa có Project nào. Vui lòng tạo Project trước.";
+            // Projects from this plan first, then existing ones (by name, default newest)
+            String projectName = payload.get("projectName") instanceof String name ? name : null;
+            projectIndex = findPlannedProject(plan, projectName);
+            if (projectIndex == null) {
+                request.setProjectId(nameResolver.findProjectId(plan.user.getId(), projectName)
+                        .orElseThrow(() -> new BadRequestException(projectName != null
+                                ? "Không tìm thấy project '" + projectName + "'"
+                                : "Bạn chưa có Project nào. Vui lòng tạo Project trước.")));
             }
-            request.setProjectId(projects.get(0).getId());
         }
 
         if (request.getAssigneeId() == null) {
-            request.setAssigneeId(user.getId());
+            request.setAssigneeId(plan.user.getId());
+        }
+
+        return new PlannedTask(validate(request, projectIndex != null ? "projectId" : null), projectIndex);
+    }
+
+    // Index of an earlier planned project: same folded name, or the latest one when no name is given
+    private static Integer findPlannedProject(Plan plan, String projectName) {
+        if (projectName == null || projectName.isBlank()) {
+            return plan.projects.isEmpty() ? null : plan.projects.size() - 1;
         }
+        String key = foldedKey(projectName);
+        for (int i = plan.projects.size() - 1; i >= 0; i--) {
+            if (key.equals(foldedKey(plan.projects.get(i).getName()))) {
+                return i;
+            }
+        }
+        return null;
+    }
 
-        TaskResponse response = taskService.createTask(request);
-        return "Đã tạo công việc: **" + response.getTitle() + "** trong dự án _" + response.getProjectName() + "_.";
+    private static String foldedKey(String name) {
+        return String.join(" ", TextFolding.terms(name));
     }
 
-    private String createNote(Map<String, Object> payload, User user) {
-        NoteRequest request = objectMapper.convertValue(payload, NoteRequest.class);
-        
+    private NoteRequest prepareNote(Map<String, Object> payload, Plan plan) {
+        NoteRequest request = convert(payload, NoteRequest.class);
+
         // Handle folder mapping by name
-        if (payload.containsKey("folderName")) {
-            String folderName = (String) payload.get("folderName");
-            Optional<NoteFolder> folder = noteFolderRepository.findAll().stream() // Assuming findByUser is not readily available or findAll filters by AOP/etc (check repo). 
-                    // Better: use noteService to get folders if possible, or assume repo has findByUser.
-                    // Let's assume repo has findByUserId or createdBy. Since I can't confirm, I'll try to find by filtering if access is safe.
-                    // SAFE: NoteFolder likely has User.
-                    // SAFEST: Just don't use folder if not certain. But user wants features.
-                    // Let's rely on standard logic: most private apps filter implicitly or explicit findByUser.
-                    // I'll try to use a standard retrieval if exists.
-                    // For now, I'll skip folder mapping if I'm not sure about repo method. 
-                    // Wait, I can use noteFolderRepository.findByCreatedBy(user) if it exists.
-                    .filter(f -> f.getName().equalsIgnoreCase(folderName) && f.getUser().getId().equals(user.getId()))
-                    .findFirst();
-            folder.ifPresent(noteFolder -> request.setFolderId(noteFolder.getId()));
-        }
-
-        var response = noteService.createNote(request);
-        return "Đã tạo ghi chú: **" + response.getTitle() + "**.";
-    }
-
-    private String addTransaction(Map<String, Object> payload, User user) {
-        TransactionRequest request = objectMapper.convertValue(payload, TransactionRequest.class);
-        
-        if (request.getCategoryId() == null && payload.containsKey("categoryName")) {
-            String catName = (String) payload.get("categoryName");
-            // Find category
-            // Assuming we can fetch categories for user or system ones.
-            // I'll assume we iterate over categories related to user.
-            // financeCategoryRepository likely has findByUserId or CreatedBy.
-            // Let's use a workaround: create a general category if null?
-            // Or try to find one.
-            // Let's assume request fails if categoryId is null.
-            // I will try to find a category simply.
-        }
-        
-        // We really need to look up category ID.
-        // Let's try to fetch all categories for user.
-        // Assuming financeCategoryRepository.findByUser(user) exists.
-        // If not, I will catch exception.
-        
-        try {
-             List<FinanceCategory> categories = financeCategoryRepository.findAll(); // Should be filtered by tenant/user in real app
-             Optional<FinanceCategory> match = categories.stream()
-                .filter(c -> c.getUser().getId().equals(user.getId()))
-                .filter(c -> c.getName().equalsIgnoreCase((String)payload.getOrDefault("categoryName", "Chi tiêu khác")))
-                .findFirst();
-             
-             if (match.isPresent()) {
-                 request.setCategoryId(match.get().getId());
-             } else {
-                 // Fallback to first one of matching type?
-                 Optional<FinanceCategory> first = categories.stream()
-                    .filter(c -> c.getUser().getId().equals(user.getId()))
-                    .filter(c -> c.getType().name().equalsIgnoreCase(request.getType())) // INCOME / EXPENSE
-                    .findFirst();
-                 first.ifPresent(c -> request.setCategoryId(c.getId()));
-             }
-        } catch (Exception e) {
-            // ignore
+        if (request.getFolderId() == null && payload.get("folderName") instanceof String folderName) {
+            nameResolver.findFolderId(plan.user.getId(), folderName).ifPresent(request::setFolderId);
         }
-        
+
+        return validate(request);
+    }
+
+    private TransactionRequest prepareTransaction(Map<String, Object> payload, Plan plan) {
+        TransactionRequest request = convert(payload, TransactionRequest.class);
+        if (request.getType() != null) {
+            request.setType(request.getType().toUpperCase());
+        }
+        if (!"INCOME".equals(request.getType()) && !"EXPENSE".equals(request.getType())) {
+            throw new BadRequestException("Loại giao dịch phải là INCOME hoặc EXPENSE");
+        }
+        if (request.getAmount() == null || request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            throw new BadRequestException("Số tiền giao dịch phải lớn hơn 0");
+        }
+
+        if (request.getCategoryId() == null) {
+            String categoryName = payload.get("categoryName") instanceof String name ? name : "Chi tiêu khác";
+            nameResolver.findCategoryId(plan.user.getId(), categoryName,
+                            FinanceCategory.CategoryType.valueOf(request.getType()))
+                    .ifPresent(request::setCategoryId);
+        }
+        if (request.getCategoryId() == null) {
+            throw new BadRequestException("Không tìm thấy danh mục phù hợp cho giao dịch");
+        }
+
         if (request.getTransactionDate() == null) {
             request.setTransactionDate(LocalDate.now().toString());
         }
 
-        financeService.createTransaction(request);
-        return "Đã thêm giao dịch: " + request.getAmount() + " VND (" + request.getType() + ").";
+        return validate(request);
     }
 
-    private String createHabit(Map<String, Object> payload, User user) {
-        HabitRequest request = objectMapper.convertValue(payload, HabitRequest.class);
+    private HabitRequest prepareHabit(Map<String, Object> payload) {
+        HabitRequest request = convert(payload, HabitRequest.class);
         if (request.getColor() == null) request.setColor("#8B5CF6");
         if (request.getIcon() == null) request.setIcon("star");
         if (request.getFrequency() == null) request.setFrequency("DAILY");
-        
-        var response = habitService.createHabit(request);
-        return "Đã tạo thói quen: **" + response.getName() + "**.";
+        return validate(request);
     }
 
-    private String createProject(Map<String, Object> payload, User user) {
-        ProjectRequest request = objectMapper.convertValue(payload, ProjectRequest.class);
-        
+    private ProjectRequest prepareProject(Map<String, Object> payload, Plan plan) {
+        ProjectRequest request = convert(payload, ProjectRequest.class);
+
         if (request.getWorkspaceId() == null) {
-            // Find default workspace
-           List<Workspace> workspaces = workspaceRepository.findAll(); 
-           // Filter for user
-           Optional<Workspace> ws = workspaces.stream()
-               .filter(w -> w.getOwner().getId().equals(user.getId()))
-               .findFirst();
-            if (ws.isPresent()) {
-                request.setWorkspaceId(ws.get().getId());
-            } else {
-                return "Bạn chưa có Workspace nào.";
-            }
+            // Workspace by name, default is the first one
+            String workspaceName = payload.get("workspaceName") instanceof String name ? name : null;
+            request.setWorkspaceId(nameResolver.findWorkspaceId(plan.user.getId(), workspaceName)
+                    .orElseThrow(() -> new BadRequestException(workspaceName != null
+                            ? "Không tìm thấy workspace '" + workspaceName + "'"
+                            : "Bạn chưa có Workspace nào.")));
+        }
+
+        return validate(request);
+    }
+
+    private <T> T convert(Map<String, Object> payload, Class<T> type) {
+        try {
+            return objectMapper.convertValue(payload, type);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Dữ liệu hành động không hợp lệ: " + e.getMessage());
+        }
+    }
+
+    private <T> T validate(T request) {
+        return validate(request, null);
+    }
+
+    // pendingProperty is filled in on execute, so its violation is skipped; may be null
+    private <T> T validate(T request, String pendingProperty) {
+        Set<ConstraintViolation<T>> violations = validator.validate(request);
+        String message = violations.stream()
+                .filter(violation -> !violation.getPropertyPath().toString().equals(pendingProperty))
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(", "));
+        if (!message.isEmpty()) {
+            throw new BadRequestException(message);
         }
-        
-        var response = projectService.createProject(request);
-        return "Đã tạo dự án: **" + response.getName() + "**.";
+        return request;
+    }
+
+    // projectIndex points into Plan.projects when the task belongs to a planned project
+    private record PlannedTask(TaskRequest request, Integer projectIndex) {
     }
-    
-    private String createGoal(Map<String, Object> payload, User user) {
-        GoalRequest request = objectMapper.convertValue(payload, GoalRequest.class);
-        var response = goalService.createGoal(request);
-        return "Đã tạo mục tiêu: **" + response.getTitle() + "**.";
+
+    private static class Plan {
+        private final User user;
+        private final List<ProjectRequest> projects = new ArrayList<>();
+        private final List<PlannedTask> tasks = new ArrayList<>();
+        private final List<NoteRequest> notes = new ArrayList<>();
+        private final List<TransactionRequest> transactions = new ArrayList<>();
+        private final List<HabitRequest> habits = new ArrayList<>();
+        private final List<GoalRequest> goals = new ArrayList<>();
+
+        private Plan(User user) {
+            this.user = user;
+        }
     }
 }
@@ -0,0 +1,101 @@
+package com.tamdao.my_task_be.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tamdao.my_task_be.entity.FinanceMonthlyRollup;
+import com.tamdao.my_task_be.entity.Task;
+import com.tamdao.my_task_be.entity.Transaction;
+import com.tamdao.my_task_be.event.HabitCheckedInEvent;
+import com.tamdao.my_task_be.event.TaskChangedEvent;
+import com.tamdao.my_task_be.event.TransactionChangedEvent;
+import com.tamdao.my_task_be.event.TransactionsImportedEvent;
+import com.tamdao.my_task_be.repository.FinanceMonthlyRollupRepository;
+import com.tamdao.my_task_be.repository.HabitRepository;
+import com.tamdao.my_task_be.repository.TaskRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+
+// Small count queries for the AI prompt, cached per user until data changes or app.ai.context-ttl passes
+@Service
+public class AiContextProvider {
+    
+    private final TaskRepository taskRepository;
+    private final HabitRepository habitRepository;
+    private final FinanceMonthlyRollupRepository financeMonthlyRollupRepository;
+    private final Cache<Long, AiContext> snapshots;
+    
+    public AiContextProvider(TaskRepository taskRepository,
+                             HabitRepository habitRepository,
+                             FinanceMonthlyRollupRepository financeMonthlyRollupRepository,
+                             @Value("${app.ai.context-cache-size:5000}") long maxSize,
+                             @Value("${app.ai.context-ttl:5m}") Duration ttl) {
+        this.taskRepository = taskRepository;
+        this.habitRepository = habitRepository;
+        this.financeMonthlyRollupRepository = financeMonthlyRollupRepository;
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+    
+    public AiContext getContext(Long userId) {
+        LocalDate today = LocalDate.now();
+        AiContext context = snapshots.get(userId, id -> load(id, today));
+        if (!today.equals(context.date())) {
+            context = load(userId, today);
+            snapshots.put(userId, context);
+        }
+        return context;
+    }
+    
+    public void evict(Long userId) {
+        snapshots.invalidate(userId);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        evict(event.getUserId());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHabitCheckedIn(HabitCheckedInEvent event) {
+        evict(event.getUserId());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        evict(event.getUserId());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransactionsImported(TransactionsImportedEvent event) {
+        evict(event.getUserId());
+    }
+    
+    private AiContext load(Long userId, LocalDate today) {
+        Long dueToday = taskRepository.countByAssigneeIdAndDueDate(userId, today);
+        Long completed = taskRepository.countByAssigneeIdAndStatus(userId, Task.TaskStatus.DONE);
+        Integer maxStreak = habitRepository.summarizeActiveByUserId(userId).getMaxStreak();
+        
+        int period = FinanceMonthlyRollup.periodOf(today);
+        BigDecimal expense = financeMonthlyRollupRepository.sumByPeriodAndType(userId, period, period).stream()
+                .filter(row -> row.getType() == Transaction.TransactionType.EXPENSE && row.getTotal() != null)
+                .map(FinanceMonthlyRollupRepository.PeriodTypeTotal::getTotal)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        
+        return new AiContext(today,
+                dueToday != null ? dueToday : 0,
+                completed != null ? completed : 0,
+                maxStreak != null ? maxStreak : 0,
+                expense);
+    }
+    
+    public record AiContext(LocalDate date, long tasksDueToday, long tasksCompleted,
+                            int maxStreak, BigDecimal expenseMonth) {
+    }
+}
@@ -0,0 +1,76 @@
+package com.tamdao.my_task_be.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.tamdao.my_task_be.dto.response.AiCacheStatsResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+// Caches informational AI answers per user, normalized question and context snapshot
+@Component
+public class AiResponseCache {
+    
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    
+    private final Cache<Key, String> responses;
+    
+    public AiResponseCache(@Value("${app.ai.response-cache.max-size:10000}") long maxSize,
+                           @Value("${app.ai.response-cache.ttl:10m}") Duration ttl,
+                           MeterRegistry meterRegistry) {
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // cache.gets{result=hit|miss}, cache.evictions... tagged cache=aiResponses
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "aiResponses");
+    }
+    
+    public String get(Long userId, String prompt, AiContextProvider.AiContext context) {
+        Key key = key(userId, prompt, context);
+        return key != null ? responses.getIfPresent(key) : null;
+    }
+    
+    public void put(Long userId, String prompt, AiContextProvider.AiContext context, String reply) {
+        Key key = key(userId, prompt, context);
+        if (key != null && reply != null && !reply.isBlank()) {
+            responses.put(key, reply);
+        }
+    }
+    
+    public AiCacheStatsResponse getStats() {
+        CacheStats stats = responses.stats();
+        return AiCacheStatsResponse.builder()
+                .hits(stats.hitCount())
+                .misses(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictions(stats.evictionCount())
+                .size(responses.estimatedSize())
+                .build();
+    }
+    
+    private static Key key(Long userId, String prompt, AiContextProvider.AiContext context) {
+        String normalized = normalize(prompt);
+        return normalized.isEmpty() ? null : new Key(userId, normalized, context);
+    }
+    
+    // Ignore case, punctuation and spacing; keep accents because they change the meaning
+    static String normalize(String prompt) {
+        if (prompt == null) {
+            return "";
+        }
+        String text = Normalizer.normalize(prompt, Normalizer.Form.NFC).toLowerCase(Locale.ROOT);
+        return NON_WORD.matcher(text).replaceAll(" ").trim();
+    }
+    
+    private record Key(Long userId, String prompt, AiContextProvider.AiContext context) {
+    }
+}
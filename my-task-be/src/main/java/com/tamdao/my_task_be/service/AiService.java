@@ -1,39 +1,48 @@
 package com.tamdao.my_task_be.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tamdao.my_task_be.dto.response.AiCacheStatsResponse;
 import com.tamdao.my_task_be.dto.response.ChatResponse;
-import com.tamdao.my_task_be.dto.response.DashboardResponse;
 import com.tamdao.my_task_be.entity.AiMessage;
 import com.tamdao.my_task_be.entity.User;
-import com.tamdao.my_task_be.exception.BadRequestException;
 import com.tamdao.my_task_be.repository.AiMessageRepository;
-import com.tamdao.my_task_be.repository.UserRepository;
+import com.tamdao.my_task_be.security.CurrentUserProvider;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.*;
+import java.util.concurrent.Callable;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AiService {
 
-    private final DashboardService dashboardService;
+    private static final String STREAM_DONE = "[DONE]";
+
+    private final AiContextProvider aiContextProvider;
     private final AiActionService aiActionService;
     private final AiMessageRepository aiMessageRepository;
-    private final UserRepository userRepository;
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final ConversationMemory conversationMemory;
+    private final AiResponseCache aiResponseCache;
+    private final CurrentUserProvider currentUserProvider;
     private final ObjectMapper objectMapper;
+    private final WebClient groqWebClient;
 
     @Value("${app.groq.api-key:}")
     private String apiKey;
@@ -42,17 +51,19 @@ public class AiService {
     private String apiUrl;
 
     private User getCurrentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new BadRequestException("User not found"));
+        return currentUserProvider.getCurrentUser();
     }
 
     public List<AiMessage> getHistory() {
         User user = getCurrentUser();
-        return aiMessageRepository.findByUserIdOrderByCreatedAtDesc(user.getId(), PageRequest.of(0, 50));
+        return aiMessageRepository.findByUserIdAndRoleInOrderByCreatedAtDesc(
+                user.getId(), ConversationMemory.CHAT_ROLES, PageRequest.of(0, 50));
+    }
+
+    public AiCacheStatsResponse getCacheStats() {
+        return aiResponseCache.getStats();
     }
 
-    @SuppressWarnings("unchecked")
     public ChatResponse chat(String userMessage) {
         if (apiKey == null || apiKey.isEmpty()) {
             return ChatResponse.builder()
@@ -61,59 +72,125 @@ public class AiService {
         }
 
         User user = getCurrentUser();
-        
-        // 1. Save User Message
-        saveMessage(user, "user", userMessage);
 
         try {
-            // 2. Build Context (Dashboard + History)
-            DashboardResponse dashboard = dashboardService.getDashboardOverview();
-            String systemContext = buildSystemContext(dashboard);
-            List<AiMessage> history = aiMessageRepository.findByUserIdOrderByCreatedAtDesc(user.getId(), PageRequest.of(0, 20)); // Last 20 msgs
-            Collections.reverse(history); // Oldest first
-
-            // 3. Build Messages Payload
-            List<Map<String, String>> messages = new ArrayList<>();
-            messages.add(Map.of("role", "system", "content", systemContext));
-            for (AiMessage msg : history) {
-                messages.add(Map.of("role", "assistant".equals(msg.getRole()) ? "assistant" : "user", "content", msg.getContent()));
+            AiContextProvider.AiContext context = aiContextProvider.getContext(user.getId());
+            saveMessage(user, "user", userMessage);
+
+            String cached = aiResponseCache.get(user.getId(), userMessage, context);
+            if (cached != null) {
+                saveMessage(user, "assistant", cached);
+                return ChatResponse.builder().reply(cached).build();
             }
-            // Note: userMessage is already in history (saved above), so it's included in the loop? 
-            // Yes, findByUserId...Desc includes the one we just saved.
-            // Wait, if we fetch form DB, it's there. Just need to make sure order is correct.
-            
-            // 4. Call Groq
-            String responseContent = callGroqApi(messages);
-
-            // 5. Check for Action (JSON format)
-            if (responseContent.trim().startsWith("{") && responseContent.contains("\"action\"")) {
-                try {
-                    Map<String, Object> actionMap = objectMapper.readValue(responseContent, Map.class);
-                    String action = (String) actionMap.get("action");
-                    Map<String, Object> payload = (Map<String, Object>) actionMap.get("payload");
-                    
-                    if (action != null) {
-                        String actionResult = aiActionService.performAction(action, payload, user);
-                        // Save the action thought process or just the final result?
-                        // Let's save the AI's intent as transparent "assistant" msg? 
-                        // Or better, save the result as the assistant reply.
-                        responseContent = actionResult;
-                    }
-                } catch (JsonProcessingException e) {
-                    log.error("Failed to parse AI Action JSON: " + responseContent, e);
-                    // Fallback: treat as normal text
+
+            String responseContent = callGroqApi(buildMessages(user, context));
+            cacheReply(user, userMessage, context, responseContent);
+            return completeReply(user, responseContent);
+        } catch (Exception e) {
+            log.error("Error calling AI API", e);
+            return ChatResponse.builder().reply("Lỗi kết nối AI: " + e.getMessage()).build();
+        }
+    }
+
+    // Streams "token" events and ends with "done"; action replies only arrive in "done"
+    public Flux<ServerSentEvent<String>> chatStream(String userMessage) {
+        if (apiKey == null || apiKey.isEmpty()) {
+            return Flux.just(sseEvent("done", "Vui lòng cấu hình Groq API Key."));
+        }
+
+        User user = getCurrentUser();
+        AiContextProvider.AiContext context = aiContextProvider.getContext(user.getId());
+        saveMessage(user, "user", userMessage);
+
+        String cached = aiResponseCache.get(user.getId(), userMessage, context);
+        if (cached != null) {
+            saveMessage(user, "assistant", cached);
+            return Flux.just(sseEvent("token", cached), sseEvent("done", cached));
+        }
+        List<Map<String, String>> messages = buildMessages(user, context);
+
+        // Completion writes to the DB and may use the SecurityContext, so carry the request's context
+        StringBuilder reply = new StringBuilder();
+        Callable<ChatResponse> complete = new DelegatingSecurityContextCallable<>(
+                () -> {
+                    cacheReply(user, userMessage, context, reply.toString());
+                    return completeReply(user, reply.toString());
+                }, SecurityContextHolder.getContext());
+
+        Flux<ServerSentEvent<String>> tokens = streamGroqApi(messages)
+                .doOnNext(reply::append)
+                .filter(token -> !isActionReply(reply.toString()))
+                .map(token -> sseEvent("token", token));
+        Mono<ServerSentEvent<String>> done = Mono.fromCallable(complete)
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(response -> sseEvent("done", response.getReply()));
+
+        return tokens.concatWith(done)
+                .onErrorResume(e -> {
+                    log.error("Error streaming AI API", e);
+                    return Flux.just(sseEvent("error", "Lỗi kết nối AI: " + e.getMessage()));
+                });
+    }
+
+    private List<Map<String, String>> buildMessages(User user, AiContextProvider.AiContext context) {
+        // Context snapshot + summarized history, which already includes the user message just saved
+        String systemContext = buildSystemContext(context);
+
+        List<Map<String, String>> messages = new ArrayList<>();
+        messages.add(Map.of("role", "system", "content", systemContext));
+        messages.addAll(conversationMemory.promptMessages(user.getId()));
+        return messages;
+    }
+
+    private ChatResponse completeReply(User user, String responseContent) {
+        // Check for Action (JSON format): a single action, {"actions": [...]} or a bare array
+        if (isActionReply(responseContent) && responseContent.contains("\"action\"")) {
+            try {
+                List<AiActionService.PlannedAction> actions = parseActions(responseContent);
+                if (!actions.isEmpty()) {
+                    // Save the summarized plan result as the assistant reply
+                    responseContent = aiActionService.performActions(actions, user);
                 }
+            } catch (JsonProcessingException e) {
+                log.error("Failed to parse AI Action JSON: " + responseContent, e);
+                // Fallback: treat as normal text
             }
+        }
 
-            // 6. Save Assistant Response
-            saveMessage(user, "assistant", responseContent);
+        // Save Assistant Response
+        saveMessage(user, "assistant", responseContent);
 
-            return ChatResponse.builder().reply(responseContent).build();
+        return ChatResponse.builder().reply(responseContent).build();
+    }
 
-        } catch (Exception e) {
-            log.error("Error calling AI API", e);
-            return ChatResponse.builder().reply("Lỗi kết nối AI: " + e.getMessage()).build();
+    private List<AiActionService.PlannedAction> parseActions(String content) throws JsonProcessingException {
+        JsonNode root = objectMapper.readTree(content.trim());
+        JsonNode items = root.isArray() ? root : root.has("actions") ? root.get("actions") : objectMapper.createArrayNode().add(root);
+
+        List<AiActionService.PlannedAction> actions = new ArrayList<>();
+        for (JsonNode item : items) {
+            String action = item.path("action").asText(null);
+            if (action == null) {
+                continue;
+            }
+            Map<String, Object> payload = item.hasNonNull("payload")
+                    ? objectMapper.convertValue(item.get("payload"), new TypeReference<Map<String, Object>>() {})
+                    : Map.of();
+            actions.add(new AiActionService.PlannedAction(action, payload));
         }
+        return actions;
+    }
+
+    private void cacheReply(User user, String userMessage, AiContextProvider.AiContext context, String reply) {
+        // Action replies must run every time, so they are never cached
+        if (!isActionReply(reply)) {
+            aiResponseCache.put(user.getId(), userMessage, context, reply);
+        }
+    }
+
+    private static boolean isActionReply(String content) {
+        String trimmed = content.stripLeading();
+        return trimmed.startsWith("{") || trimmed.startsWith("[");
     }
 
     private void saveMessage(User user, String role, String content) {
@@ -122,55 +199,80 @@ public class AiService {
                 .role(role)
                 .content(content)
                 .build();
-        aiMessageRepository.save(msg);
+        conversationMemory.append(user, aiMessageRepository.save(msg));
     }
     
-    @SuppressWarnings("unchecked")
     private String callGroqApi(List<Map<String, String>> messages) {
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("model", "llama-3.3-70b-versatile");
-        requestBody.put("messages", messages);
-        requestBody.put("temperature", 0.7);
-        // Force JSON mode if needed? No, user prompt is enough for now.
+        JsonNode response = groqWebClient.post()
+                .uri(apiUrl)
+                .bodyValue(buildRequestBody(messages, false))
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .block();
+        if (response == null) {
+            throw new IllegalStateException("Empty Groq response");
+        }
+        return response.path("choices").path(0).path("message").path("content").asText();
+    }
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setBearerAuth(apiKey);
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
+    private Flux<String> streamGroqApi(List<Map<String, String>> messages) {
+        return groqWebClient.post()
+                .uri(apiUrl)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(buildRequestBody(messages, true))
+                .retrieve()
+                .bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<String>>() {})
+                .map(event -> event.data() != null ? event.data() : "")
+                .takeWhile(data -> !STREAM_DONE.equals(data.trim()))
+                .filter(data -> !data.isBlank())
+                .map(this::parseDelta)
+                .filter(token -> !token.isEmpty());
+    }
 
-        ResponseEntity<String> response = restTemplate.postForEntity(apiUrl, entity, String.class);
-        
+    private String parseDelta(String chunk) {
         try {
-            Map<String, Object> responseMap = objectMapper.readValue(response.getBody(), Map.class);
-            List<Map<String, Object>> choices = (List<Map<String, Object>>) responseMap.get("choices");
-            Map<String, Object> message = (Map<String, Object>) choices.get(0).get("message");
-            return (String) message.get("content");
+            return objectMapper.readTree(chunk).path("choices").path(0).path("delta").path("content").asText("");
         } catch (JsonProcessingException e) {
-            throw new RuntimeException("Error parsing Groq response", e);
+            throw new IllegalStateException("Error parsing Groq stream chunk", e);
         }
     }
 
+    private Map<String, Object> buildRequestBody(List<Map<String, String>> messages, boolean stream) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", "llama-3.3-70b-versatile");
+        requestBody.put("messages", messages);
+        requestBody.put("temperature", 0.7);
+        if (stream) {
+            requestBody.put("stream", true);
+        }
+        return requestBody;
+    }
 
+    private static ServerSentEvent<String> sseEvent(String name, String data) {
+        return ServerSentEvent.<String>builder(data).event(name).build();
+    }
 
-    private String buildSystemContext(DashboardResponse d) {
+    private String buildSystemContext(AiContextProvider.AiContext d) {
         StringBuilder sb = new StringBuilder();
         sb.append("Bạn là AI Assistant của MyTask. ");
         sb.append("Bạn có khả năng thực hiện các hành động sau bằng cách trả về JSON format:\n");
-        sb.append("1. Tạo công việc: { \"action\": \"CREATE_TASK\", \"payload\": { \"title\": \"...\", \"description\": \"...\", \"priority\": \"HIGH/MEDIUM/LOW\" } }\n");
+        sb.append("1. Tạo công việc: { \"action\": \"CREATE_TASK\", \"payload\": { \"title\": \"...\", \"description\": \"...\", \"priority\": \"HIGH/MEDIUM/LOW\", \"projectName\": \"...\" (optional) } }\n");
         sb.append("2. Tạo ghi chú: { \"action\": \"CREATE_NOTE\", \"payload\": { \"title\": \"...\", \"content\": \"...\", \"folderName\": \"...\" (optional) } }\n");
         sb.append("3. Thêm giao dịch: { \"action\": \"ADD_TRANSACTION\", \"payload\": { \"type\": \"INCOME/EXPENSE\", \"amount\": 100000, \"categoryName\": \"...\", \"note\": \"...\" } }\n");
         sb.append("4. Tạo thói quen: { \"action\": \"CREATE_HABIT\", \"payload\": { \"name\": \"...\", \"targetPerDay\": 1 } }\n");
-        sb.append("5. Tạo dự án: { \"action\": \"CREATE_PROJECT\", \"payload\": { \"name\": \"...\", \"description\": \"...\" } }\n");
+        sb.append("5. Tạo dự án: { \"action\": \"CREATE_PROJECT\", \"payload\": { \"name\": \"...\", \"description\": \"...\", \"workspaceName\": \"...\" (optional) } }\n");
         sb.append("6. Tạo mục tiêu: { \"action\": \"CREATE_GOAL\", \"payload\": { \"title\": \"...\", \"description\": \"...\", \"targetDate\": \"YYYY-MM-DD\" } }\n");
 
         sb.append("   - Nếu người dùng yêu cầu thực hiện hành động, hãy Trả Về Chỉ JSON Object này. Không thêm lời dẫn.\n");
+        sb.append("   - Nếu cần nhiều hành động (ví dụ tạo nhiều công việc), trả về một JSON duy nhất: { \"actions\": [ { \"action\": \"...\", \"payload\": { ... } }, ... ] }\n");
+        sb.append("   - Khi vừa tạo dự án vừa tạo công việc trong dự án đó, đặt 'projectName' của công việc trùng tên dự án mới.\n");
         sb.append("   - Đối với 'categoryName' trong giao dịch, hãy cố gắng đoán danh mục (ví dụ: 'Ăn uống', 'Lương', 'Di chuyển').\n\n");
         
         sb.append("Thông tin ngữ cảnh hiện tại:\n");
-        sb.append("- Tasks hôm nay: ").append(d.getTasksDueToday()).append("\n");
-        sb.append("- Đã xong: ").append(d.getTasksCompleted()).append("\n");
-        sb.append("- Streak Habits: ").append(d.getMaxStreak()).append("\n");
-        sb.append("- Chi tiêu tháng: ").append(d.getTotalExpenseMonth()).append(" VND\n\n");
+        sb.append("- Tasks hôm nay: ").append(d.tasksDueToday()).append("\n");
+        sb.append("- Đã xong: ").append(d.tasksCompleted()).append("\n");
+        sb.append("- Streak Habits: ").append(d.maxStreak()).append("\n");
+        sb.append("- Chi tiêu tháng: ").append(d.expenseMonth()).append(" VND\n\n");
         
         sb.append("Quy tắc: \n");
         sb.append("- Nếu là câu hỏi thường: Trả lời ngắn gọn, thân thiện bằng tiếng Việt.\n");
@@ -10,6 +10,8 @@ import com.tamdao.my_task_be.entity.Workspace;
 import com.tamdao.my_task_be.repository.WorkspaceRepository;
 import com.tamdao.my_task_be.repository.UserRepository;
 import com.tamdao.my_task_be.security.JwtTokenProvider;
+import com.tamdao.my_task_be.security.UserPrincipal;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -53,7 +55,7 @@ public class AuthService {
         workspaceRepository.save(workspace);
         
         // Generate tokens
-        String accessToken = tokenProvider.generateAccessToken(user.getEmail());
+        String accessToken = tokenProvider.generateAccessToken(user);
         String refreshToken = tokenProvider.generateRefreshToken(user.getEmail());
         
         return AuthResponse.of(accessToken, refreshToken, UserResponse.fromEntity(user));
@@ -65,9 +67,8 @@ public class AuthService {
                 new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
         );
         
-        // Get user
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new BadRequestException("Không tìm thấy người dùng"));
+        // Get user (already loaded by the authentication provider)
+        User user = ((UserPrincipal) authentication.getPrincipal()).getUser();
         
         // Generate tokens
         String accessToken = tokenProvider.generateAccessToken(authentication);
@@ -77,15 +78,19 @@ public class AuthService {
     }
     
     public AuthResponse refreshToken(String refreshToken) {
-        if (!tokenProvider.validateToken(refreshToken)) {
+        Claims claims = tokenProvider.validateAndGetClaims(refreshToken);
+        if (claims == null) {
             throw new BadRequestException("Token không hợp lệ hoặc đã hết hạn");
         }
         
-        String email = tokenProvider.getEmailFromToken(refreshToken);
+        String email = claims.getSubject();
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new BadRequestException("Không tìm thấy người dùng"));
+        if (!Boolean.TRUE.equals(user.getActive())) {
+            throw new BadRequestException("Tài khoản đã bị khóa");
+        }
         
-        String newAccessToken = tokenProvider.generateAccessToken(email);
+        String newAccessToken = tokenProvider.generateAccessToken(user);
         String newRefreshToken = tokenProvider.generateRefreshToken(email);
         
         return AuthResponse.of(newAccessToken, newRefreshToken, UserResponse.fromEntity(user));
@@ -0,0 +1,155 @@
+package com.tamdao.my_task_be.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tamdao.my_task_be.entity.AiMessage;
+import com.tamdao.my_task_be.entity.User;
+import com.tamdao.my_task_be.repository.AiMessageRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+// Recent AI chat turns kept in memory plus a stored summary of older ones
+@Component
+public class ConversationMemory {
+    
+    public static final String SUMMARY_ROLE = "summary";
+    public static final List<String> CHAT_ROLES = List.of("user", "assistant");
+    
+    // Rough estimate: ~4 characters per token plus per-message overhead
+    private static final int CHARS_PER_TOKEN = 4;
+    private static final int MESSAGE_OVERHEAD_TOKENS = 4;
+    private static final int SUMMARY_LINE_CHARS = 200;
+    
+    private final AiMessageRepository aiMessageRepository;
+    private final int tokenBudget;
+    private final int summaryBudget;
+    private final int maxTurns;
+    private final Cache<Long, Conversation> conversations;
+    
+    public ConversationMemory(AiMessageRepository aiMessageRepository,
+                              @Value("${app.ai.memory.token-budget:3000}") int tokenBudget,
+                              @Value("${app.ai.memory.summary-token-budget:600}") int summaryBudget,
+                              @Value("${app.ai.memory.max-turns:20}") int maxTurns,
+                              @Value("${app.ai.memory.max-users:2000}") long maxUsers,
+                              @Value("${app.ai.memory.idle-ttl:30m}") Duration idleTtl) {
+        this.aiMessageRepository = aiMessageRepository;
+        this.tokenBudget = tokenBudget;
+        this.summaryBudget = summaryBudget;
+        this.maxTurns = maxTurns;
+        this.conversations = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(idleTtl)
+                .build();
+    }
+    
+    public void append(User user, AiMessage message) {
+        Conversation conversation = conversations.get(user.getId(), this::load);
+        synchronized (conversation) {
+            // Already in the window when the cache was just loaded from the DB
+            AiMessage last = conversation.turns.peekLast();
+            if (last == null || !message.getId().equals(last.getId())) {
+                conversation.turns.addLast(message);
+                conversation.tokens += estimateTokens(message.getContent());
+            }
+            compact(user, conversation);
+        }
+    }
+    
+    // Summary first, then recent turns, oldest first
+    public List<Map<String, String>> promptMessages(Long userId) {
+        Conversation conversation = conversations.get(userId, this::load);
+        synchronized (conversation) {
+            List<Map<String, String>> messages = new ArrayList<>();
+            if (conversation.summary != null && !conversation.summary.getContent().isEmpty()) {
+                messages.add(Map.of("role", "system",
+                        "content", "Tóm tắt các lượt hội thoại trước:\n" + conversation.summary.getContent()));
+            }
+            for (AiMessage turn : conversation.turns) {
+                messages.add(Map.of("role", "assistant".equals(turn.getRole()) ? "assistant" : "user",
+                        "content", turn.getContent()));
+            }
+            return messages;
+        }
+    }
+    
+    private Conversation load(Long userId) {
+        Conversation conversation = new Conversation();
+        conversation.summary = aiMessageRepository.findFirstByUserIdAndRoleOrderByIdDesc(userId, SUMMARY_ROLE)
+                .orElse(null);
+        long afterId = conversation.summary != null && conversation.summary.getSummarizedUntilId() != null
+                ? conversation.summary.getSummarizedUntilId() : 0L;
+        List<AiMessage> recent = aiMessageRepository.findByUserIdAndRoleInAndIdGreaterThanOrderByIdDesc(
+                userId, CHAT_ROLES, afterId, PageRequest.of(0, maxTurns));
+        Collections.reverse(recent);
+        for (AiMessage message : recent) {
+            conversation.turns.addLast(message);
+            conversation.tokens += estimateTokens(message.getContent());
+        }
+        return conversation;
+    }
+    
+    private void compact(User user, Conversation conversation) {
+        List<AiMessage> evicted = new ArrayList<>();
+        // Always keep the newest message even if it alone exceeds the budget
+        while (conversation.turns.size() > 1
+                && (conversation.turns.size() > maxTurns || conversation.tokens + summaryTokens(conversation) > tokenBudget)) {
+            AiMessage oldest = conversation.turns.removeFirst();
+            conversation.tokens -= estimateTokens(oldest.getContent());
+            evicted.add(oldest);
+        }
+        if (evicted.isEmpty()) {
+            return;
+        }
+        
+        Deque<String> lines = new ArrayDeque<>();
+        if (conversation.summary != null && !conversation.summary.getContent().isEmpty()) {
+            lines.addAll(List.of(conversation.summary.getContent().split("\n")));
+        }
+        for (AiMessage message : evicted) {
+            lines.addLast(summaryLine(message));
+        }
+        // The summary has its own budget: drop its oldest lines
+        int chars = lines.stream().mapToInt(line -> line.length() + 1).sum();
+        while (lines.size() > 1 && chars / CHARS_PER_TOKEN > summaryBudget) {
+            chars -= lines.removeFirst().length() + 1;
+        }
+        
+        AiMessage summary = conversation.summary != null ? conversation.summary
+                : AiMessage.builder().user(user).role(SUMMARY_ROLE).build();
+        summary.setContent(String.join("\n", lines));
+        summary.setSummarizedUntilId(evicted.get(evicted.size() - 1).getId());
+        conversation.summary = aiMessageRepository.save(summary);
+    }
+    
+    private int summaryTokens(Conversation conversation) {
+        return conversation.summary != null ? estimateTokens(conversation.summary.getContent()) : 0;
+    }
+    
+    private static String summaryLine(AiMessage message) {
+        String content = message.getContent() != null ? message.getContent().replaceAll("\\s+", " ").trim() : "";
+        if (content.length() > SUMMARY_LINE_CHARS) {
+            content = content.substring(0, SUMMARY_LINE_CHARS - 1) + "…";
+        }
+        return ("assistant".equals(message.getRole()) ? "- AI: " : "- Người dùng: ") + content;
+    }
+    
+    private static int estimateTokens(String content) {
+        int length = content != null ? content.length() : 0;
+        return (length + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN + MESSAGE_OVERHEAD_TOKENS;
+    }
+    
+    private static final class Conversation {
+        private final Deque<AiMessage> turns = new ArrayDeque<>();
+        private AiMessage summary;
+        private int tokens;
+    }
+}
@@ -0,0 +1,90 @@
+package com.tamdao.my_task_be.service;
+
+import com.tamdao.my_task_be.dto.response.ProductivityPointResponse;
+import com.tamdao.my_task_be.entity.DailyProductivity;
+import com.tamdao.my_task_be.entity.Task;
+import com.tamdao.my_task_be.event.ContentChangedEvent;
+import com.tamdao.my_task_be.event.HabitCheckedInEvent;
+import com.tamdao.my_task_be.event.PomodoroCompletedEvent;
+import com.tamdao.my_task_be.event.TaskChangedEvent;
+import com.tamdao.my_task_be.repository.DailyProductivityRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class DailyProductivityService {
+    
+    private final DailyProductivityRepository dailyProductivityRepository;
+        
+    @EventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        LocalDate previousDay = event.getPreviousCompletedAt() != null
+                ? event.getPreviousCompletedAt().toLocalDate() : null;
+        LocalDate currentDay = event.getStatus() == Task.TaskStatus.DONE && event.getCompletedAt() != null
+                ? event.getCompletedAt().toLocalDate() : null;
+        if (Objects.equals(previousDay, currentDay)) {
+            return;
+        }
+        if (previousDay != null) {
+            dailyProductivityRepository.increment(event.getUserId(), previousDay, -1, 0, 0);
+        }
+        if (currentDay != null) {
+            dailyProductivityRepository.increment(event.getUserId(), currentDay, 1, 0, 0);
+        }
+    }
+    
+    @EventListener
+    public void onContentChanged(ContentChangedEvent event) {
+        // Deleting a project (also via its workspace) removes its tasks without a TaskChangedEvent
+        if (event.getKind() == ContentChangedEvent.Kind.PROJECT && event.getType() == ContentChangedEvent.Type.DELETED) {
+            dailyProductivityRepository.subtractCompletedTasksOfProject(event.getUserId(), event.getId());
+        }
+    }
+    
+    @EventListener
+    public void onHabitCheckedIn(HabitCheckedInEvent event) {
+        // Count each habit once per day, like the habit_logs rows
+        if (event.isFirstOfDay()) {
+            dailyProductivityRepository.increment(event.getUserId(), event.getDate(), 0, 1, 0);
+        }
+    }
+    
+    @EventListener
+    public void onPomodoroCompleted(PomodoroCompletedEvent event) {
+        dailyProductivityRepository.increment(event.getUserId(), event.getDate(), 0, 0, event.getMinutes());
+    }
+    
+    @Transactional(readOnly = true)
+    public List<ProductivityPointResponse> getTrend(Long userId, LocalDate startDate, LocalDate endDate) {
+        Map<LocalDate, DailyProductivity> byDay = dailyProductivityRepository
+                .findByUserIdAndDayRange(userId, startDate, endDate).stream()
+                .collect(Collectors.toMap(DailyProductivity::getDay, Function.identity()));
+        
+        List<ProductivityPointResponse> points = new ArrayList<>();
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            DailyProductivity row = byDay.get(day);
+            points.add(row != null
+                    ? ProductivityPointResponse.of(day, row.getTasksCompleted(), row.getHabitCheckins(), row.getFocusMinutes())
+                    : ProductivityPointResponse.of(day, 0, 0, 0));
+        }
+        return points;
+    }
+    
+    @Transactional
+    public int rebuild() {
+        dailyProductivityRepository.backfillTaskCompletedAt();
+        dailyProductivityRepository.deleteAllInBatch();
+        return dailyProductivityRepository.rebuildFromHistory();
+    }
+}
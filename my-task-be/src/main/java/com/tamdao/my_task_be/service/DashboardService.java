@@ -1,163 +1,225 @@
 package com.tamdao.my_task_be.service;
 
 import com.tamdao.my_task_be.dto.response.DashboardResponse;
+import com.tamdao.my_task_be.dto.response.ProductivityPointResponse;
 import com.tamdao.my_task_be.dto.response.SearchResponse;
 import com.tamdao.my_task_be.dto.response.TaskResponse;
-import com.tamdao.my_task_be.dto.response.SearchResponse.TaskItem;
+import com.tamdao.my_task_be.entity.FinanceCategory;
+import com.tamdao.my_task_be.entity.FinanceMonthlyRollup;
 import com.tamdao.my_task_be.entity.Task;
 import com.tamdao.my_task_be.entity.User;
-import com.tamdao.my_task_be.exception.BadRequestException;
 import com.tamdao.my_task_be.repository.*;
-import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.context.SecurityContextHolder;
+import com.tamdao.my_task_be.security.CurrentUserProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class DashboardService {
     
+    private static final int TREND_DAYS = 7;
+    private static final int MAX_TREND_DAYS = 366;
+    
     private final TaskRepository taskRepository;
     private final HabitRepository habitRepository;
-    private final HabitLogRepository habitLogRepository;
-    private final TransactionRepository transactionRepository;
-    private final PomodoroSessionRepository pomodoroSessionRepository;
-    private final UserRepository userRepository;
+    private final FinanceMonthlyRollupRepository financeMonthlyRollupRepository;
+    private final DailyProductivityService dailyProductivityService;
+    private final SearchService searchService;
+    private final CurrentUserProvider currentUserProvider;
+    private final Executor dashboardExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration sectionTimeout;
+    
+    public DashboardService(TaskRepository taskRepository,
+                            HabitRepository habitRepository,
+                            FinanceMonthlyRollupRepository financeMonthlyRollupRepository,
+                            DailyProductivityService dailyProductivityService,
+                            SearchService searchService,
+                            CurrentUserProvider currentUserProvider,
+                            Executor dashboardExecutor,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.dashboard.section-timeout:2s}") Duration sectionTimeout) {
+        this.taskRepository = taskRepository;
+        this.habitRepository = habitRepository;
+        this.financeMonthlyRollupRepository = financeMonthlyRollupRepository;
+        this.dailyProductivityService = dailyProductivityService;
+        this.searchService = searchService;
+        this.currentUserProvider = currentUserProvider;
+        this.dashboardExecutor = dashboardExecutor;
+        this.sectionTimeout = sectionTimeout;
+        // orTimeout only stops waiting; the transaction timeout also cancels the JDBC query
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setTimeout((int) Math.max(1, (sectionTimeout.toMillis() + 999) / 1000));
+    }
     
     private User getCurrentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new BadRequestException("Không tìm thấy người dùng"));
+        return currentUserProvider.getCurrentUser();
     }
     
     public DashboardResponse getDashboardOverview() {
-        // ... (existing code unchanged in view, but I'll replace it properly)
+        // Resolve the user on the request thread; sections run on dashboardExecutor
         User user = getCurrentUser();
         Long userId = user.getId();
         LocalDate today = LocalDate.now();
-        LocalDate startOfMonth = today.withDayOfMonth(1);
-        LocalDate endOfMonth = today.withDayOfMonth(today.lengthOfMonth());
-        
-        // 1. Task Stats
-        long tasksDueToday = taskRepository.countByAssigneeIdAndDueDate(userId, today);
-        long tasksPending = taskRepository.countActiveTasksByUser(userId);
-        long tasksCompleted = taskRepository.countByAssigneeIdAndStatus(userId, Task.TaskStatus.DONE);
-        
-        List<TaskResponse> recentTasks = taskRepository.findByAssigneeIdOrderByDueDateAsc(userId).stream()
-                .filter(t -> t.getStatus() != Task.TaskStatus.DONE)
-                .limit(5)
-                .map(TaskResponse::fromEntity)
-                .collect(Collectors.toList());
-        
-        // 2. Habit Stats
-        long totalHabits = habitRepository.findByUserIdAndActiveTrue(userId).size();
-        long habitsCompletedToday = habitLogRepository.findByUserIdAndCompletedDate(userId, today).size();
-        
-        int maxStreak = habitRepository.findByUserIdAndActiveTrue(userId).stream()
-                .mapToInt(h -> h.getCurrentStreak() != null ? h.getCurrentStreak() : 0)
-                .max()
-                .orElse(0);
+        LocalDate trendStart = today.minusDays(TREND_DAYS - 1);
         
-        // 3. Finance Stats
-        BigDecimal totalIncome = transactionRepository.sumIncomeByUserAndDateRange(userId, startOfMonth, endOfMonth);
-        BigDecimal totalExpense = transactionRepository.sumExpenseByUserAndDateRange(userId, startOfMonth, endOfMonth);
+        // A slow or failing section degrades to empty data instead of failing the whole overview
+        Set<String> unavailable = ConcurrentHashMap.newKeySet();
+        CompletableFuture<TaskSection> tasksFuture = supplySection("tasks",
+                () -> loadTaskSection(userId, today), new TaskSection(), unavailable);
+        CompletableFuture<HabitSection> habitsFuture = supplySection("habits",
+                () -> loadHabitSection(userId), new HabitSection(), unavailable);
+        CompletableFuture<FinanceSection> financeFuture = supplySection("finance",
+                () -> loadFinanceSection(userId, today), new FinanceSection(), unavailable);
+        CompletableFuture<List<ProductivityPointResponse>> trendFuture = supplySection("productivity",
+                () -> dailyProductivityService.getTrend(userId, trendStart, today),
+                emptyTrend(trendStart, today), unavailable);
         
-        if (totalIncome == null) totalIncome = BigDecimal.ZERO;
-        if (totalExpense == null) totalExpense = BigDecimal.ZERO;
+        TaskSection tasks = tasksFuture.join();
+        HabitSection habits = habitsFuture.join();
+        FinanceSection finance = financeFuture.join();
+        List<ProductivityPointResponse> trendPoints = trendFuture.join();
         
-        // 4. Pomodoro Stats
-        Integer focusMinutes = pomodoroSessionRepository.sumCompletedDurationByUserSince(userId, today.atStartOfDay());
-        if (focusMinutes == null) focusMinutes = 0;
+        ProductivityPointResponse todayPoint = trendPoints.get(trendPoints.size() - 1);
+        long tasksDueToday = tasks.dueToday;
+        long habitsCompletedToday = todayPoint.getHabitCheckins();
+        int focusMinutes = todayPoint.getFocusMinutes();
         
-        // 5. AI Suggestions
+        // AI Suggestions
         List<String> suggestions = new ArrayList<>();
         if (tasksDueToday > 0) {
             suggestions.add("Bạn có " + tasksDueToday + " công việc cần hoàn thành hôm nay. Hãy ưu tiên chúng!");
         }
-        if (tasksPending > 5) {
+        if (tasks.pending > 5) {
             suggestions.add("Khối lượng công việc đang tích tụ. Hãy xem xét sử dụng Pomodoro để tập trung hơn.");
         }
-        if (habitsCompletedToday < totalHabits && totalHabits > 0) {
+        if (habitsCompletedToday < habits.totalHabits && habits.totalHabits > 0) {
             suggestions.add("Đừng quên check-in các thói quen của bạn nhé!");
         }
         
-        // 6. Productivity Calculation
-        List<Integer> trend = new ArrayList<>();
-        for (int i = 6; i >= 0; i--) {
-            trend.add(calculateDailyScore(userId, today.minusDays(i)));
-        }
-        int currentScore = trend.get(6);
+        // Productivity trend comes from the daily_productivity rollup
+        List<Integer> trend = trendPoints.stream()
+                .map(ProductivityPointResponse::getScore)
+                .collect(Collectors.toList());
+        int currentScore = todayPoint.getScore();
         
         return DashboardResponse.builder()
                 .tasksDueToday(tasksDueToday)
-                .tasksPending(tasksPending)
-                .tasksCompleted(tasksCompleted)
+                .tasksPending(tasks.pending)
+                .tasksCompleted(tasks.completed)
                 .habitsCompletedToday(habitsCompletedToday)
-                .totalHabits(totalHabits)
-                .maxStreak(maxStreak)
-                .totalIncomeMonth(totalIncome)
-                .totalExpenseMonth(totalExpense)
+                .totalHabits(habits.totalHabits)
+                .maxStreak(habits.maxStreak)
+                .totalIncomeMonth(finance.income)
+                .totalExpenseMonth(finance.expense)
                 .focusMinutesToday(focusMinutes)
-                .recentTasks(recentTasks)
+                .recentTasks(tasks.recentTasks)
                 .suggestions(suggestions)
                 .productivityScore(currentScore)
                 .productivityTrend(trend)
+                .unavailableSections(new ArrayList<>(unavailable))
                 .build();
     }
-
-    private int calculateDailyScore(Long userId, LocalDate date) {
-        // Simple formula: Task (10pts), Habit (5pts), Pomodoro (1pt per 5min)
-        // Adjust relative to targets or fixed weights
-        long tasks = taskRepository.countByAssigneeIdAndDueDate(userId, date); // Actually should be completed count on that date
-        // Note: Repository doesn't have completedDate for tasks, so we estimate using dueDate for simplicity or assume tasks completed today.
-        // For real app, Task should have completedAt. 
-        
-        long habits = habitLogRepository.findByUserIdAndCompletedDate(userId, date).size();
-        Integer focusMinutes = pomodoroSessionRepository.sumCompletedDurationByUserSince(userId, date.atStartOfDay());
-        if (focusMinutes == null) focusMinutes = 0;
-        
-        // Let's use a dynamic base of 100 for "perfect day"
-        // 3 tasks (30), 5 habits (25), 2h focus (120/5 = 24) = 79. Scale it.
-        double score = (tasks * 15) + (habits * 10) + (focusMinutes / 3.0);
-        return (int) Math.min(score, 100);
+    
+    private <T> CompletableFuture<T> supplySection(String name, Supplier<T> loader, T fallback, Set<String> unavailable) {
+        // Each section runs in its own transaction so lazy associations can be mapped off the request thread
+        return CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> loader.get()), dashboardExecutor)
+                .orTimeout(sectionTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionally(ex -> {
+                    log.warn("Dashboard section '{}' unavailable: {}", name, ex.toString());
+                    unavailable.add(name);
+                    return fallback;
+                });
     }
-
-    private final ProjectRepository projectRepository;
-
-    public SearchResponse search(String query) {
-        User user = getCurrentUser();
-
-        List<TaskItem> tasks = taskRepository.searchTasks(user.getId(), query)
-                .stream()
-                .limit(5)
-                .map(t -> com.tamdao.my_task_be.dto.response.SearchResponse.TaskItem.builder()
-                        .id(t.getId())
-                        .title(t.getTitle())
-                        .status(t.getStatus().name())
-                        .projectId(t.getProject() != null ? t.getProject().getId() : null)
-                        .projectName(t.getProject() != null ? t.getProject().getName() : null)
-                        .build())
-                .collect(Collectors.toList());
-
-        List<com.tamdao.my_task_be.dto.response.SearchResponse.ProjectItem> projects = projectRepository.findByCreatedByIdAndNameContainingIgnoreCase(user.getId(), query)
+    
+    private TaskSection loadTaskSection(Long userId, LocalDate today) {
+        TaskSection section = new TaskSection();
+        for (TaskRepository.StatusCount row : taskRepository.countByStatusForAssignee(userId)) {
+            if (row.getStatus() == Task.TaskStatus.DONE) {
+                section.completed += row.getTotal();
+            } else {
+                section.pending += row.getTotal();
+            }
+        }
+        section.dueToday = taskRepository.countByAssigneeIdAndDueDate(userId, today);
+        section.recentTasks = taskRepository.findTop5ByAssigneeIdAndStatusNotOrderByDueDateAsc(userId, Task.TaskStatus.DONE)
                 .stream()
-                .limit(3)
-                .map(p -> com.tamdao.my_task_be.dto.response.SearchResponse.ProjectItem.builder()
-                        .id(p.getId())
-                        .name(p.getName())
-                        .color(p.getColor())
-                        .icon(p.getIcon())
-                        .build())
+                .map(TaskResponse::fromEntity)
                 .collect(Collectors.toList());
+        return section;
+    }
+    
+    private HabitSection loadHabitSection(Long userId) {
+        HabitSection section = new HabitSection();
+        HabitRepository.ActiveHabitSummary summary = habitRepository.summarizeActiveByUserId(userId);
+        section.totalHabits = summary.getTotal() != null ? summary.getTotal() : 0;
+        section.maxStreak = summary.getMaxStreak() != null ? summary.getMaxStreak() : 0;
+        return section;
+    }
+    
+    private FinanceSection loadFinanceSection(Long userId, LocalDate today) {
+        FinanceSection section = new FinanceSection();
+        for (FinanceMonthlyRollupRepository.CategoryTypeTotal row :
+                financeMonthlyRollupRepository.sumByCategoryType(userId, FinanceMonthlyRollup.periodOf(today))) {
+            BigDecimal total = row.getTotal() != null ? row.getTotal() : BigDecimal.ZERO;
+            if (row.getType() == FinanceCategory.CategoryType.INCOME) {
+                section.income = section.income.add(total);
+            } else {
+                section.expense = section.expense.add(total);
+            }
+        }
+        return section;
+    }
+    
+    public List<ProductivityPointResponse> getProductivityTrend(int days) {
+        int span = Math.max(1, Math.min(days, MAX_TREND_DAYS));
+        LocalDate today = LocalDate.now();
+        return dailyProductivityService.getTrend(getCurrentUser().getId(), today.minusDays(span - 1), today);
+    }
+    
+    private static List<ProductivityPointResponse> emptyTrend(LocalDate startDate, LocalDate endDate) {
+        List<ProductivityPointResponse> points = new ArrayList<>();
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            points.add(ProductivityPointResponse.of(day, 0, 0, 0));
+        }
+        return points;
+    }
+    
+    private static class TaskSection {
+        long pending;
+        long completed;
+        long dueToday;
+        List<TaskResponse> recentTasks = List.of();
+    }
+    
+    private static class HabitSection {
+        long totalHabits;
+        int maxStreak;
+    }
+    
+    private static class FinanceSection {
+        BigDecimal income = BigDecimal.ZERO;
+        BigDecimal expense = BigDecimal.ZERO;
+    }
 
-        return com.tamdao.my_task_be.dto.response.SearchResponse.builder()
-                .tasks(tasks)
-                .projects(projects)
-                .build();
+    public SearchResponse search(String query) {
+        return searchService.search(query);
     }
 }
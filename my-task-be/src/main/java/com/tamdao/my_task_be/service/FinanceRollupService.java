@@ -0,0 +1,45 @@
+package com.tamdao.my_task_be.service;
+
+import com.tamdao.my_task_be.entity.FinanceMonthlyRollup;
+import com.tamdao.my_task_be.event.TransactionChangedEvent;
+import com.tamdao.my_task_be.repository.FinanceMonthlyRollupRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+// Keeps finance_monthly_rollup current: subtract the previous values, add the new ones
+@Service
+@RequiredArgsConstructor
+public class FinanceRollupService {
+    
+    private final FinanceMonthlyRollupRepository rollupRepository;
+    
+    @EventListener
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        if (event.getPrevious() != null) {
+            apply(event.getUserId(), event.getPrevious(), -1);
+        }
+        if (event.getCurrent() != null) {
+            apply(event.getUserId(), event.getCurrent(), 1);
+        }
+    }
+    
+    @Transactional
+    public int rebuildForUser(Long userId) {
+        rollupRepository.deleteByUserId(userId);
+        return rollupRepository.rebuildFromTransactions(userId);
+    }
+    
+    @Transactional
+    public int rebuildAll() {
+        rollupRepository.deleteAllInBatch();
+        return rollupRepository.rebuildFromTransactions(null);
+    }
+    
+    private void apply(Long userId, TransactionChangedEvent.Snapshot snapshot, int sign) {
+        rollupRepository.applyDelta(userId, FinanceMonthlyRollup.periodOf(snapshot.getDate()),
+                snapshot.getCategoryId(), snapshot.getType().name(),
+                sign > 0 ? snapshot.getAmount() : snapshot.getAmount().negate(), sign);
+    }
+}
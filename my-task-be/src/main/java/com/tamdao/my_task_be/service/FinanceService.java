@@ -1,40 +1,51 @@
 package com.tamdao.my_task_be.service;
 
 import com.tamdao.my_task_be.dto.request.TransactionRequest;
+import com.tamdao.my_task_be.dto.response.MonthlyFinanceSummaryResponse;
 import com.tamdao.my_task_be.dto.response.TransactionResponse;
 import com.tamdao.my_task_be.entity.FinanceCategory;
+import com.tamdao.my_task_be.entity.FinanceMonthlyRollup;
 import com.tamdao.my_task_be.entity.Transaction;
 import com.tamdao.my_task_be.entity.User;
+import com.tamdao.my_task_be.event.NameChangedEvent;
+import com.tamdao.my_task_be.event.TransactionChangedEvent;
 import com.tamdao.my_task_be.exception.BadRequestException;
 import com.tamdao.my_task_be.exception.ResourceNotFoundException;
 import com.tamdao.my_task_be.repository.FinanceCategoryRepository;
+import com.tamdao.my_task_be.repository.FinanceMonthlyRollupRepository;
 import com.tamdao.my_task_be.repository.TransactionRepository;
-import com.tamdao.my_task_be.repository.UserRepository;
+import com.tamdao.my_task_be.security.CurrentUserProvider;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class FinanceService {
     
+    private static final int MAX_SUMMARY_MONTHS = 120;
+    
     private final TransactionRepository transactionRepository;
     private final FinanceCategoryRepository categoryRepository;
-    private final UserRepository userRepository;
+    private final FinanceMonthlyRollupRepository rollupRepository;
+    private final FinanceRollupService financeRollupService;
+    private final CurrentUserProvider currentUserProvider;
+    private final ApplicationEventPublisher eventPublisher;
     
     private User getCurrentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new BadRequestException("Không tìm thấy người dùng"));
+        return currentUserProvider.getCurrentUser();
     }
     
     // Transactions
@@ -73,22 +84,54 @@ public class FinanceService {
         FinanceCategory category = categoryRepository.findById(request.getCategoryId())
                 .orElseThrow(() -> new ResourceNotFoundException("Category", request.getCategoryId()));
         
-        Transaction.TransactionType type = Transaction.TransactionType.valueOf(request.getType());
+        Transaction transaction = transactionRepository.save(buildTransaction(request, category, user));
+        eventPublisher.publishEvent(new TransactionChangedEvent(transaction.getId(), user.getId(),
+                null, TransactionChangedEvent.Snapshot.of(transaction)));
+        return TransactionResponse.fromEntity(transaction);
+    }
+    
+    // Creates transactions with one saveAll; the rollup still follows each TransactionChangedEvent
+    @Transactional
+    public List<TransactionResponse> createTransactions(List<TransactionRequest> requests, User user) {
+        Map<Long, FinanceCategory> categories = categoryRepository.findAllById(requests.stream()
+                        .map(TransactionRequest::getCategoryId)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(FinanceCategory::getId, Function.identity()));
+        
+        List<Transaction> transactions = new ArrayList<>();
+        for (TransactionRequest request : requests) {
+            FinanceCategory category = categories.get(request.getCategoryId());
+            if (category == null) {
+                throw new ResourceNotFoundException("Category", request.getCategoryId());
+            }
+            // Shared categories (no user) are usable by everyone
+            if (category.getUser() != null && !category.getUser().getId().equals(user.getId())) {
+                throw new BadRequestException("Bạn không có quyền sử dụng danh mục này");
+            }
+            transactions.add(buildTransaction(request, category, user));
+        }
+        
+        List<Transaction> saved = transactionRepository.saveAll(transactions);
+        saved.forEach(transaction -> eventPublisher.publishEvent(new TransactionChangedEvent(
+                transaction.getId(), user.getId(), null, TransactionChangedEvent.Snapshot.of(transaction))));
+        return saved.stream()
+                .map(TransactionResponse::fromEntity)
+                .collect(Collectors.toList());
+    }
+    
+    private Transaction buildTransaction(TransactionRequest request, FinanceCategory category, User user) {
         LocalDate transactionDate = request.getTransactionDate() != null 
                 ? LocalDate.parse(request.getTransactionDate())
                 : LocalDate.now();
         
-        Transaction transaction = Transaction.builder()
+        return Transaction.builder()
                 .amount(request.getAmount())
-                .type(type)
+                .type(Transaction.TransactionType.valueOf(request.getType()))
                 .category(category)
                 .note(request.getNote())
                 .transactionDate(transactionDate)
                 .user(user)
                 .build();
-        
-        transaction = transactionRepository.save(transaction);
-        return TransactionResponse.fromEntity(transaction);
     }
     
     @Transactional
@@ -104,6 +147,7 @@ public class FinanceService {
         FinanceCategory category = categoryRepository.findById(request.getCategoryId())
                 .orElseThrow(() -> new ResourceNotFoundException("Category", request.getCategoryId()));
         
+        TransactionChangedEvent.Snapshot previous = TransactionChangedEvent.Snapshot.of(transaction);
         transaction.setAmount(request.getAmount());
         transaction.setType(Transaction.TransactionType.valueOf(request.getType()));
         transaction.setCategory(category);
@@ -114,6 +158,8 @@ public class FinanceService {
         }
         
         transaction = transactionRepository.save(transaction);
+        eventPublisher.publishEvent(new TransactionChangedEvent(transaction.getId(), user.getId(),
+                previous, TransactionChangedEvent.Snapshot.of(transaction)));
         return TransactionResponse.fromEntity(transaction);
     }
     
@@ -128,50 +174,22 @@ public class FinanceService {
         }
         
         transactionRepository.delete(transaction);
+        eventPublisher.publishEvent(new TransactionChangedEvent(transaction.getId(), user.getId(),
+                TransactionChangedEvent.Snapshot.of(transaction), null));
     }
     
     // Summary
     public Map<String, Object> getMonthlySummary(int year, int month) {
         User user = getCurrentUser();
         
-        // Current Month
+        // Current and previous month in one grouped query
         YearMonth yearMonth = YearMonth.of(year, month);
-        LocalDate start = yearMonth.atDay(1);
-        LocalDate end = yearMonth.atEndOfMonth();
+        List<MonthlyFinanceSummaryResponse> months = summarizeMonths(user.getId(), yearMonth.minusMonths(1), yearMonth);
+        MonthlyFinanceSummaryResponse previous = months.get(0);
+        MonthlyFinanceSummaryResponse current = months.get(1);
         
-        List<Transaction> currentTransactions = transactionRepository
-                .findByUserIdAndTransactionDateBetweenOrderByTransactionDateDesc(user.getId(), start, end);
-        
-        BigDecimal income = currentTransactions.stream()
-                .filter(t -> t.getType() == Transaction.TransactionType.INCOME)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        BigDecimal expense = currentTransactions.stream()
-                .filter(t -> t.getType() == Transaction.TransactionType.EXPENSE)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // Previous Month for comparison
-        YearMonth prevYearMonth = yearMonth.minusMonths(1);
-        LocalDate prevStart = prevYearMonth.atDay(1);
-        LocalDate prevEnd = prevYearMonth.atEndOfMonth();
-        
-        List<Transaction> prevTransactions = transactionRepository
-                .findByUserIdAndTransactionDateBetweenOrderByTransactionDateDesc(user.getId(), prevStart, prevEnd);
-        
-        BigDecimal prevIncome = prevTransactions.stream()
-                .filter(t -> t.getType() == Transaction.TransactionType.INCOME)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        BigDecimal prevExpense = prevTransactions.stream()
-                .filter(t -> t.getType() == Transaction.TransactionType.EXPENSE)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        BigDecimal currentBalance = income.subtract(expense);
-        BigDecimal prevBalance = prevIncome.subtract(prevExpense);
+        BigDecimal currentBalance = current.getBalance();
+        BigDecimal prevBalance = previous.getBalance();
         
         double growth = 0;
         if (prevBalance.compareTo(BigDecimal.ZERO) != 0) {
@@ -184,15 +202,63 @@ public class FinanceService {
         }
 
         Map<String, Object> summary = new HashMap<>();
-        summary.put("income", income);
-        summary.put("expense", expense);
+        summary.put("income", current.getIncome());
+        summary.put("expense", current.getExpense());
         summary.put("balance", currentBalance);
         summary.put("growth", growth);
-        summary.put("transactionCount", currentTransactions.size());
+        summary.put("transactionCount", current.getTransactionCount());
         
         return summary;
     }
     
+    public List<MonthlyFinanceSummaryResponse> getSummaryRange(YearMonth from, YearMonth to) {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("Tháng bắt đầu phải trước tháng kết thúc");
+        }
+        if (from.plusMonths(MAX_SUMMARY_MONTHS).isBefore(to.plusMonths(1))) {
+            throw new BadRequestException("Khoảng thời gian tối đa là " + MAX_SUMMARY_MONTHS + " tháng");
+        }
+        return summarizeMonths(getCurrentUser().getId(), from, to);
+    }
+    
+    private List<MonthlyFinanceSummaryResponse> summarizeMonths(Long userId, YearMonth from, YearMonth to) {
+        Map<YearMonth, MonthlyFinanceSummaryResponse> byMonth = new LinkedHashMap<>();
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            byMonth.put(month, MonthlyFinanceSummaryResponse.builder()
+                    .year(month.getYear())
+                    .month(month.getMonthValue())
+                    .income(BigDecimal.ZERO)
+                    .expense(BigDecimal.ZERO)
+                    .incomeCount(0L)
+                    .expenseCount(0L)
+                    .build());
+        }
+        
+        // Reads the rollup: at most months x categories rows, no scan of transactions
+        for (FinanceMonthlyRollupRepository.PeriodTypeTotal row : rollupRepository.sumByPeriodAndType(
+                userId, FinanceMonthlyRollup.periodOf(from), FinanceMonthlyRollup.periodOf(to))) {
+            MonthlyFinanceSummaryResponse point = byMonth.get(FinanceMonthlyRollup.toYearMonth(row.getPeriod()));
+            BigDecimal total = row.getTotal() != null ? row.getTotal() : BigDecimal.ZERO;
+            if (row.getType() == Transaction.TransactionType.INCOME) {
+                point.setIncome(total);
+                point.setIncomeCount(row.getCount());
+            } else {
+                point.setExpense(total);
+                point.setExpenseCount(row.getCount());
+            }
+        }
+        
+        for (MonthlyFinanceSummaryResponse point : byMonth.values()) {
+            point.setBalance(point.getIncome().subtract(point.getExpense()));
+            point.setTransactionCount(point.getIncomeCount() + point.getExpenseCount());
+        }
+        return new ArrayList<>(byMonth.values());
+    }
+    
+    public int rebuildSummary() {
+        return financeRollupService.rebuildForUser(getCurrentUser().getId());
+    }
+    
     // Categories
     @Transactional
     public List<FinanceCategory> getAllCategories() {
@@ -228,7 +294,9 @@ public class FinanceService {
                 .user(user)
                 .build());
         }
-        return categoryRepository.saveAll(toSave);
+        List<FinanceCategory> saved = categoryRepository.saveAll(toSave);
+        eventPublisher.publishEvent(new NameChangedEvent(NameChangedEvent.Kind.CATEGORY, user.getId()));
+        return saved;
     }
     
     @Transactional
@@ -242,6 +310,8 @@ public class FinanceService {
                 .user(user)
                 .build();
         
-        return categoryRepository.save(category);
+        category = categoryRepository.save(category);
+        eventPublisher.publishEvent(new NameChangedEvent(NameChangedEvent.Kind.CATEGORY, user.getId()));
+        return category;
     }
 }
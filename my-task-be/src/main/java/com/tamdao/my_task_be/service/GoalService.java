@@ -5,13 +5,14 @@ import com.tamdao.my_task_be.dto.response.GoalResponse;
 import com.tamdao.my_task_be.entity.Goal;
 import com.tamdao.my_task_be.entity.Milestone;
 import com.tamdao.my_task_be.entity.User;
+import com.tamdao.my_task_be.event.ContentChangedEvent;
 import com.tamdao.my_task_be.exception.BadRequestException;
 import com.tamdao.my_task_be.exception.ResourceNotFoundException;
 import com.tamdao.my_task_be.repository.GoalRepository;
 import com.tamdao.my_task_be.repository.MilestoneRepository;
-import com.tamdao.my_task_be.repository.UserRepository;
+import com.tamdao.my_task_be.security.CurrentUserProvider;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,12 +26,11 @@ public class GoalService {
     
     private final GoalRepository goalRepository;
     private final MilestoneRepository milestoneRepository;
-    private final UserRepository userRepository;
+    private final CurrentUserProvider currentUserProvider;
+    private final ApplicationEventPublisher eventPublisher;
     
     private User getCurrentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new BadRequestException("Không tìm thấy người dùng"));
+        return currentUserProvider.getCurrentUser();
     }
     
     public List<GoalResponse> getAllGoals() {
@@ -56,35 +56,25 @@ public class GoalService {
     public GoalResponse createGoal(GoalRequest request) {
         User user = getCurrentUser();
         
-        Goal goal = Goal.builder()
-                .title(request.getTitle())
-                .description(request.getDescription())
-                .targetDate(request.getTargetDate())
-                .status(Goal.GoalStatus.IN_PROGRESS)
-                .progress(0)
-                .user(user)
-                .milestones(new HashSet<>())
-                .build();
-        
-        if (request.getMilestones() != null && !request.getMilestones().isEmpty()) {
-            for (GoalRequest.MilestoneRequest mr : request.getMilestones()) {
-                Milestone milestone = Milestone.builder()
-                        .title(mr.getTitle())
-                        .targetDate(mr.getTargetDate())
-                        .goal(goal)
-                        .isCompleted(false)
-                        .build();
-                goal.getMilestones().add(milestone);
-            }
-        }
-        
-        // Recalculate progress just in case
-        updateGoalProgress(goal);
+        Goal goal = buildGoal(request, user);
         
         goal = goalRepository.save(goal);
+        publishChange(ContentChangedEvent.Type.CREATED, goal, user);
         return GoalResponse.fromEntity(goal);
     }
     
+    @Transactional
+    public List<GoalResponse> createGoals(List<GoalRequest> requests, User user) {
+        List<Goal> goals = requests.stream()
+                .map(request -> buildGoal(request, user))
+                .collect(Collectors.toList());
+        List<Goal> saved = goalRepository.saveAll(goals);
+        saved.forEach(goal -> publishChange(ContentChangedEvent.Type.CREATED, goal, user));
+        return saved.stream()
+                .map(GoalResponse::fromEntity)
+                .collect(Collectors.toList());
+    }
+    
     @Transactional
     public GoalResponse updateGoal(Long id, GoalRequest request) {
         Goal goal = goalRepository.findById(id)
@@ -100,6 +90,7 @@ public class GoalService {
         goal.setTargetDate(request.getTargetDate());
         
         goal = goalRepository.save(goal);
+        publishChange(ContentChangedEvent.Type.UPDATED, goal, user);
         return GoalResponse.fromEntity(goal);
     }
     
@@ -114,6 +105,7 @@ public class GoalService {
         }
         
         goalRepository.delete(goal);
+        publishChange(ContentChangedEvent.Type.DELETED, goal, user);
     }
     
     // Milestones logic
@@ -196,4 +188,39 @@ public class GoalService {
             }
         }
     }
+    
+    private Goal buildGoal(GoalRequest request, User user) {
+        Goal goal = Goal.builder()
+                .title(request.getTitle())
+                .description(request.getDescription())
+                .targetDate(request.getTargetDate())
+                .status(Goal.GoalStatus.IN_PROGRESS)
+                .progress(0)
+                .user(user)
+                .milestones(new HashSet<>())
+                .build();
+        
+        if (request.getMilestones() != null && !request.getMilestones().isEmpty()) {
+            for (GoalRequest.MilestoneRequest mr : request.getMilestones()) {
+                Milestone milestone = Milestone.builder()
+                        .title(mr.getTitle())
+                        .targetDate(mr.getTargetDate())
+                        .goal(goal)
+                        .isCompleted(false)
+                        .build();
+                goal.getMilestones().add(milestone);
+            }
+        }
+        
+        // Recalculate progress just in case
+        updateGoalProgress(goal);
+        return goal;
+    }
+    
+    private void publishChange(ContentChangedEvent.Type type, Goal goal, User user) {
+        boolean deleted = type == ContentChangedEvent.Type.DELETED;
+        eventPublisher.publishEvent(new ContentChangedEvent(type, ContentChangedEvent.Kind.GOAL,
+                goal.getId(), user.getId(), null,
+                deleted ? null : goal.getTitle(), deleted ? null : goal.getDescription()));
+    }
 }
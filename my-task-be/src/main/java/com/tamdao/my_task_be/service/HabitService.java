@@ -1,50 +1,53 @@
 package com.tamdao.my_task_be.service;
 
 import com.tamdao.my_task_be.dto.request.HabitRequest;
+import com.tamdao.my_task_be.dto.response.HabitCalendarResponse;
 import com.tamdao.my_task_be.dto.response.HabitResponse;
 import com.tamdao.my_task_be.entity.Habit;
+import com.tamdao.my_task_be.entity.HabitCalendar;
 import com.tamdao.my_task_be.entity.HabitLog;
 import com.tamdao.my_task_be.entity.User;
+import com.tamdao.my_task_be.event.HabitCheckedInEvent;
 import com.tamdao.my_task_be.exception.BadRequestException;
 import com.tamdao.my_task_be.exception.ResourceNotFoundException;
 import com.tamdao.my_task_be.repository.HabitLogRepository;
 import com.tamdao.my_task_be.repository.HabitRepository;
-import com.tamdao.my_task_be.repository.UserRepository;
+import com.tamdao.my_task_be.security.CurrentUserProvider;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class HabitService {
     
+    private static final int MAX_CHECK_IN_ATTEMPTS = 3;
+    
     private final HabitRepository habitRepository;
     private final HabitLogRepository habitLogRepository;
-    private final UserRepository userRepository;
+    private final CurrentUserProvider currentUserProvider;
+    private final HabitStreakService habitStreakService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
     
     private User getCurrentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new BadRequestException("Không tìm thấy người dùng"));
+        return currentUserProvider.getCurrentUser();
     }
     
     public List<HabitResponse> getAllHabits(LocalDate date) {
         User user = getCurrentUser();
         
-        return habitRepository.findByUserIdAndActiveOrderByCreatedAtDesc(user.getId(), true).stream()
-                .map(habit -> {
-                    Optional<HabitLog> dateLog = habitLogRepository.findByHabitIdAndCompletedDate(habit.getId(), date);
-                    int count = dateLog.map(HabitLog::getCount).orElse(0);
-                    boolean completed = count >= (habit.getTargetPerDay() != null ? habit.getTargetPerDay() : 1);
-                    return HabitResponse.fromEntity(habit, completed, count);
-                })
-                .collect(Collectors.toList());
+        List<Habit> habits = habitRepository.findByUserIdAndActiveOrderByCreatedAtDesc(user.getId(), true);
+        return toResponses(habits, date);
     }
     
     public HabitResponse getHabitById(Long id) {
@@ -56,33 +59,27 @@ public class HabitService {
             throw new BadRequestException("Bạn không có quyền truy cập habit này");
         }
         
-        LocalDate today = LocalDate.now();
-        Optional<HabitLog> todayLog = habitLogRepository.findByHabitIdAndCompletedDate(id, today);
-        int count = todayLog.map(HabitLog::getCount).orElse(0);
-        boolean completed = count >= (habit.getTargetPerDay() != null ? habit.getTargetPerDay() : 1);
-        
-        return HabitResponse.fromEntity(habit, completed, count);
+        return toResponses(List.of(habit), LocalDate.now()).get(0);
     }
     
     @Transactional
     public HabitResponse createHabit(HabitRequest request) {
         User user = getCurrentUser();
         
-        Habit habit = Habit.builder()
-                .name(request.getName())
-                .description(request.getDescription())
-                .icon(request.getIcon() != null ? request.getIcon() : "🎯")
-                .color(request.getColor() != null ? request.getColor() : "#8B5CF6")
-                .frequency(request.getFrequency() != null ? request.getFrequency() : "DAILY")
-                .targetPerDay(request.getTargetPerDay() != null ? request.getTargetPerDay() : 1)
-                .reminderTime(request.getReminderTime())
-                .user(user)
-                .build();
-        
-        habit = habitRepository.save(habit);
+        Habit habit = habitRepository.save(buildHabit(request, user));
         return HabitResponse.fromEntity(habit, false, 0);
     }
     
+    @Transactional
+    public List<HabitResponse> createHabits(List<HabitRequest> requests, User user) {
+        List<Habit> habits = requests.stream()
+                .map(request -> buildHabit(request, user))
+                .collect(Collectors.toList());
+        return habitRepository.saveAll(habits).stream()
+                .map(habit -> HabitResponse.fromEntity(habit, false, 0))
+                .collect(Collectors.toList());
+    }
+    
     @Transactional
     public HabitResponse updateHabit(Long id, HabitRequest request) {
         Habit habit = habitRepository.findById(id)
@@ -102,59 +99,26 @@ public class HabitService {
         habit.setReminderTime(request.getReminderTime());
         
         habit = habitRepository.save(habit);
-        
-        LocalDate today = LocalDate.now();
-        Optional<HabitLog> todayLog = habitLogRepository.findByHabitIdAndCompletedDate(id, today);
-        int count = todayLog.map(HabitLog::getCount).orElse(0);
-        boolean completed = count >= habit.getTargetPerDay();
-        
-        return HabitResponse.fromEntity(habit, completed, count);
+        return toResponses(List.of(habit), LocalDate.now()).get(0);
     }
     
-    @Transactional
-    public HabitResponse checkIn(Long habitId) {
-        Habit habit = habitRepository.findById(habitId)
-                .orElseThrow(() -> new ResourceNotFoundException("Habit", habitId));
-        
-        User user = getCurrentUser();
-        if (!habit.getUser().getId().equals(user.getId())) {
-            throw new BadRequestException("Bạn không có quyền check-in habit này");
+    public HabitResponse checkIn(Long habitId, LocalDate date) {
+        LocalDate day = date != null ? date : LocalDate.now();
+        if (day.isAfter(LocalDate.now())) {
+            throw new BadRequestException("Không thể check-in cho ngày trong tương lai");
         }
+        User user = getCurrentUser();
         
-        LocalDate today = LocalDate.now();
-        Optional<HabitLog> existingLog = habitLogRepository.findByHabitIdAndCompletedDate(habitId, today);
-        
-        HabitLog log;
-        if (existingLog.isPresent()) {
-            log = existingLog.get();
-            log.setCount(log.getCount() + 1);
-        } else {
-            log = HabitLog.builder()
-                    .habit(habit)
-                    .completedDate(today)
-                    .count(1)
-                    .build();
-            
-            // Update streak
-            LocalDate yesterday = today.minusDays(1);
-            Optional<HabitLog> yesterdayLog = habitLogRepository.findByHabitIdAndCompletedDate(habitId, yesterday);
-            
-            if (yesterdayLog.isPresent()) {
-                habit.setCurrentStreak(habit.getCurrentStreak() + 1);
-            } else {
-                habit.setCurrentStreak(1);
+        // Streak and calendar use optimistic locking; retry the whole transaction on conflict
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> doCheckIn(habitId, day, user));
+            } catch (OptimisticLockingFailureException | DataIntegrityViolationException ex) {
+                if (attempt >= MAX_CHECK_IN_ATTEMPTS) {
+                    throw ex;
+                }
             }
-            
-            if (habit.getCurrentStreak() > habit.getLongestStreak()) {
-                habit.setLongestStreak(habit.getCurrentStreak());
-            }
-            habitRepository.save(habit);
         }
-        
-        habitLogRepository.save(log);
-        
-        boolean completed = log.getCount() >= habit.getTargetPerDay();
-        return HabitResponse.fromEntity(habit, completed, log.getCount());
     }
     
     @Transactional
@@ -183,8 +147,79 @@ public class HabitService {
         return habitLogRepository.findByHabitIdAndDateRange(habitId, startDate, endDate);
     }
 
+    public HabitCalendarResponse getHabitCalendar(Long habitId, int year) {
+        Habit habit = habitRepository.findById(habitId)
+                .orElseThrow(() -> new ResourceNotFoundException("Habit", habitId));
+        
+        User user = getCurrentUser();
+        if (!habit.getUser().getId().equals(user.getId())) {
+            throw new BadRequestException("Bạn không có quyền xem habit này");
+        }
+        
+        HabitCalendar calendar = habitStreakService.findCalendar(habitId, year);
+        return calendar != null ? HabitCalendarResponse.fromEntity(calendar) : HabitCalendarResponse.empty(habitId, year);
+    }
+    
+    public List<HabitCalendarResponse> getGlobalHabitCalendars(int year) {
+        User user = getCurrentUser();
+        return habitStreakService.findActiveCalendars(user.getId(), year).stream()
+                .map(HabitCalendarResponse::fromEntity)
+                .collect(Collectors.toList());
+    }
+
     public List<HabitLog> getGlobalHabitLogs(LocalDate startDate, LocalDate endDate) {
         User user = getCurrentUser();
         return habitLogRepository.findByUserIdAndDateRange(user.getId(), startDate, endDate);
     }
+    
+    private HabitResponse doCheckIn(Long habitId, LocalDate date, User user) {
+        Habit habit = habitRepository.findById(habitId)
+                .orElseThrow(() -> new ResourceNotFoundException("Habit", habitId));
+        
+        if (!habit.getUser().getId().equals(user.getId())) {
+            throw new BadRequestException("Bạn không có quyền check-in habit này");
+        }
+        
+        boolean firstOfDay = habitLogRepository.incrementCount(habitId, date) == 1;
+        if (firstOfDay) {
+            habitStreakService.recordCompletion(habit, date);
+        }
+        int count = habitLogRepository.findCountByHabitIdAndCompletedDate(habitId, date);
+        eventPublisher.publishEvent(new HabitCheckedInEvent(habitId, user.getId(), date, firstOfDay));
+        
+        boolean completed = count >= (habit.getTargetPerDay() != null ? habit.getTargetPerDay() : 1);
+        return HabitResponse.fromEntity(habit, completed, count);
+    }
+    
+    private Habit buildHabit(HabitRequest request, User user) {
+        return Habit.builder()
+                .name(request.getName())
+                .description(request.getDescription())
+                .icon(request.getIcon() != null ? request.getIcon() : "🎯")
+                .color(request.getColor() != null ? request.getColor() : "#8B5CF6")
+                .frequency(request.getFrequency() != null ? request.getFrequency() : "DAILY")
+                .targetPerDay(request.getTargetPerDay() != null ? request.getTargetPerDay() : 1)
+                .reminderTime(request.getReminderTime())
+                .user(user)
+                .build();
+    }
+    
+    private List<HabitResponse> toResponses(List<Habit> habits, LocalDate date) {
+        if (habits.isEmpty()) {
+            return List.of();
+        }
+        // Load today's counts for all habits in one query
+        List<Long> habitIds = habits.stream().map(Habit::getId).collect(Collectors.toList());
+        Map<Long, Integer> countByHabit = habitLogRepository.findCountsByHabitIdsAndDate(habitIds, date).stream()
+                .collect(Collectors.toMap(HabitLogRepository.HabitDayCount::getHabitId,
+                        HabitLogRepository.HabitDayCount::getCount, Integer::sum));
+        
+        return habits.stream()
+                .map(habit -> {
+                    int count = countByHabit.getOrDefault(habit.getId(), 0);
+                    boolean completed = count >= (habit.getTargetPerDay() != null ? habit.getTargetPerDay() : 1);
+                    return HabitResponse.fromEntity(habit, completed, count);
+                })
+                .collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,172 @@
+package com.tamdao.my_task_be.service;
+
+import com.tamdao.my_task_be.entity.Habit;
+import com.tamdao.my_task_be.entity.HabitCalendar;
+import com.tamdao.my_task_be.repository.HabitCalendarRepository;
+import com.tamdao.my_task_be.repository.HabitLogRepository;
+import com.tamdao.my_task_be.repository.HabitRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Keeps per-year completion bitsets and derives streaks from them
+@Service
+@RequiredArgsConstructor
+public class HabitStreakService {
+    
+    private static final int REBUILD_BATCH_SIZE = 200;
+    
+    private final HabitCalendarRepository habitCalendarRepository;
+    private final HabitLogRepository habitLogRepository;
+    private final HabitRepository habitRepository;
+    private final TransactionTemplate transactionTemplate;
+    
+    // Today's check-in only needs yesterday's bit; a back-dated one recomputes from the calendars
+    @Transactional
+    public void recordCompletion(Habit habit, LocalDate date) {
+        if (!habitCalendarRepository.existsByHabitId(habit.getId())) {
+            // Habit from before the calendars existed: build them from habit_logs (includes this check-in)
+            List<HabitCalendar> calendars = buildCalendars(Map.of(habit.getId(), habit),
+                    habitLogRepository.findDayCountsByHabitIds(List.of(habit.getId())))
+                    .getOrDefault(habit.getId(), List.of());
+            habitCalendarRepository.saveAll(calendars);
+            applyStreaks(habit, calendars, LocalDate.now());
+            habitRepository.save(habit);
+            return;
+        }
+        HabitCalendar calendar = habitCalendarRepository.findByHabitIdAndYear(habit.getId(), date.getYear())
+                .orElseGet(() -> HabitCalendar.builder().habit(habit).year(date.getYear()).build());
+        if (!calendar.markCompleted(date)) {
+            return;
+        }
+        habitCalendarRepository.save(calendar);
+        
+        LocalDate today = LocalDate.now();
+        if (date.equals(today)) {
+            boolean completedYesterday = isCompleted(habit, calendar, today.minusDays(1));
+            habit.setCurrentStreak(completedYesterday ? habit.getCurrentStreak() + 1 : 1);
+            habit.setLongestStreak(Math.max(habit.getLongestStreak(), habit.getCurrentStreak()));
+        } else {
+            applyStreaks(habit, habitCalendarRepository.findByHabitIdOrderByYearAsc(habit.getId()), today);
+        }
+        habitRepository.save(habit);
+    }
+    
+    @Transactional(readOnly = true)
+    public HabitCalendar findCalendar(Long habitId, int year) {
+        return habitCalendarRepository.findByHabitIdAndYear(habitId, year).orElse(null);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<HabitCalendar> findActiveCalendars(Long userId, int year) {
+        return habitCalendarRepository.findActiveByUserIdAndYear(userId, year);
+    }
+    
+    // Rebuilds calendars and streaks from habit_logs, one transaction per batch of habits
+    public int rebuild() {
+        int calendars = 0;
+        long lastId = 0;
+        while (true) {
+            long afterId = lastId;
+            RebuildBatch batch = transactionTemplate.execute(status -> rebuildBatch(afterId));
+            calendars += batch.calendars();
+            if (batch.habits() < REBUILD_BATCH_SIZE) {
+                return calendars;
+            }
+            lastId = batch.lastHabitId();
+        }
+    }
+    
+    private RebuildBatch rebuildBatch(long afterId) {
+        List<Habit> habits = habitRepository.findByIdGreaterThanOrderByIdAsc(afterId,
+                PageRequest.of(0, REBUILD_BATCH_SIZE));
+        if (habits.isEmpty()) {
+            return new RebuildBatch(0, afterId, 0);
+        }
+        Map<Long, Habit> byId = habits.stream()
+                .collect(Collectors.toMap(Habit::getId, Function.identity()));
+        habitCalendarRepository.deleteByHabitIdIn(byId.keySet());
+        Map<Long, List<HabitCalendar>> calendarsByHabit = buildCalendars(byId,
+                habitLogRepository.findDayCountsByHabitIds(byId.keySet()));
+        
+        LocalDate today = LocalDate.now();
+        List<HabitCalendar> calendars = new ArrayList<>();
+        for (Habit habit : habits) {
+            List<HabitCalendar> habitCalendars = calendarsByHabit.getOrDefault(habit.getId(), List.of());
+            applyStreaks(habit, habitCalendars, today);
+            calendars.addAll(habitCalendars);
+        }
+        habitCalendarRepository.saveAll(calendars);
+        habitRepository.saveAll(habits);
+        return new RebuildBatch(habits.size(), habits.get(habits.size() - 1).getId(), calendars.size());
+    }
+    
+    private Map<Long, List<HabitCalendar>> buildCalendars(Map<Long, Habit> habits,
+                                                          List<HabitLogRepository.HabitDayCount> rows) {
+        Map<Long, Map<Integer, HabitCalendar>> byHabitAndYear = new HashMap<>();
+        for (HabitLogRepository.HabitDayCount row : rows) {
+            LocalDate day = row.getCompletedDate();
+            byHabitAndYear.computeIfAbsent(row.getHabitId(), id -> new HashMap<>())
+                    .computeIfAbsent(day.getYear(), year -> HabitCalendar.builder()
+                            .habit(habits.get(row.getHabitId()))
+                            .year(year)
+                            .build())
+                    .markCompleted(day);
+        }
+        Map<Long, List<HabitCalendar>> calendars = new HashMap<>();
+        byHabitAndYear.forEach((habitId, byYear) -> {
+            List<HabitCalendar> sorted = new ArrayList<>(byYear.values());
+            sorted.sort(Comparator.comparing(HabitCalendar::getYear));
+            calendars.put(habitId, sorted);
+        });
+        return calendars;
+    }
+    
+    private boolean isCompleted(Habit habit, HabitCalendar current, LocalDate date) {
+        if (date.getYear() == current.getYear()) {
+            return current.isCompleted(date);
+        }
+        return habitCalendarRepository.findByHabitIdAndYear(habit.getId(), date.getYear())
+                .map(calendar -> calendar.isCompleted(date))
+                .orElse(false);
+    }
+    
+    // Current streak is the last run if it ends today or yesterday; longestStreak never decreases
+    private void applyStreaks(Habit habit, List<HabitCalendar> calendars, LocalDate today) {
+        int longest = 0;
+        int run = 0;
+        LocalDate lastCompleted = null;
+        for (HabitCalendar calendar : calendars) {
+            Year year = Year.of(calendar.getYear());
+            BitSet bits = calendar.toBitSet();
+            for (int start = bits.nextSetBit(0); start >= 0; start = bits.nextSetBit(start + 1)) {
+                int end = bits.nextClearBit(start);
+                LocalDate first = year.atDay(start + 1);
+                boolean continues = lastCompleted != null && lastCompleted.plusDays(1).equals(first);
+                run = continues ? run + (end - start) : end - start;
+                lastCompleted = year.atDay(end);
+                longest = Math.max(longest, run);
+                start = end;
+            }
+        }
+        boolean alive = lastCompleted != null && !lastCompleted.isBefore(today.minusDays(1));
+        habit.setCurrentStreak(alive ? run : 0);
+        habit.setLongestStreak(Math.max(habit.getLongestStreak(), longest));
+    }
+    
+    private record RebuildBatch(int habits, long lastHabitId, int calendars) {
+    }
+}
@@ -0,0 +1,193 @@
+package com.tamdao.my_task_be.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tamdao.my_task_be.entity.FinanceCategory;
+import com.tamdao.my_task_be.event.ContentChangedEvent;
+import com.tamdao.my_task_be.event.NameChangedEvent;
+import com.tamdao.my_task_be.repository.FinanceCategoryRepository;
+import com.tamdao.my_task_be.repository.NoteFolderRepository;
+import com.tamdao.my_task_be.repository.ProjectRepository;
+import com.tamdao.my_task_be.repository.TitleRow;
+import com.tamdao.my_task_be.repository.WorkspaceRepository;
+import com.tamdao.my_task_be.util.TextFolding;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+// Resolves ids from names typed by the user (case, accent and typo tolerant); names are cached per user
+@Component
+public class NameResolver {
+    
+    // Lower is better: 0 exact, 1 prefix, 2 contains, 3+ edit distance
+    private static final int EXACT = 0;
+    private static final int PREFIX = 1;
+    private static final int CONTAINS = 2;
+    private static final int EDIT_BASE = 3;
+    
+    private final NoteFolderRepository noteFolderRepository;
+    private final FinanceCategoryRepository financeCategoryRepository;
+    private final WorkspaceRepository workspaceRepository;
+    private final ProjectRepository projectRepository;
+    private final Cache<Key, List<Named>> names;
+    
+    public NameResolver(NoteFolderRepository noteFolderRepository,
+                        FinanceCategoryRepository financeCategoryRepository,
+                        WorkspaceRepository workspaceRepository,
+                        ProjectRepository projectRepository,
+                        @Value("${app.name-resolver.max-entries:8000}") long maxEntries,
+                        @Value("${app.name-resolver.idle-ttl:30m}") Duration idleTtl) {
+        this.noteFolderRepository = noteFolderRepository;
+        this.financeCategoryRepository = financeCategoryRepository;
+        this.workspaceRepository = workspaceRepository;
+        this.projectRepository = projectRepository;
+        this.names = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterAccess(idleTtl)
+                .build();
+    }
+    
+    public Optional<Long> findFolderId(Long userId, String name) {
+        return bestMatch(list(NameChangedEvent.Kind.FOLDER, userId), name);
+    }
+    
+    // Prefer categories of the same type; fall back to the first one of that type
+    public Optional<Long> findCategoryId(Long userId, String name, FinanceCategory.CategoryType type) {
+        List<Named> categories = list(NameChangedEvent.Kind.CATEGORY, userId);
+        List<Named> sameType = categories.stream()
+                .filter(named -> type.name().equals(named.type()))
+                .collect(Collectors.toList());
+        return bestMatch(sameType, name)
+                .or(() -> bestMatch(categories, name))
+                .or(() -> sameType.stream().findFirst().map(Named::id));
+    }
+    
+    // By name if given, otherwise the user's oldest workspace
+    public Optional<Long> findWorkspaceId(Long userId, String name) {
+        List<Named> workspaces = list(NameChangedEvent.Kind.WORKSPACE, userId);
+        return isBlank(name) ? workspaces.stream().findFirst().map(Named::id) : bestMatch(workspaces, name);
+    }
+    
+    // By name if given, otherwise the user's newest project
+    public Optional<Long> findProjectId(Long userId, String name) {
+        List<Named> projects = list(NameChangedEvent.Kind.PROJECT, userId);
+        return isBlank(name) ? projects.stream().findFirst().map(Named::id) : bestMatch(projects, name);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNameChanged(NameChangedEvent event) {
+        names.invalidate(new Key(event.getKind(), event.getUserId()));
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContentChanged(ContentChangedEvent event) {
+        if (event.getKind() == ContentChangedEvent.Kind.PROJECT) {
+            names.invalidate(new Key(NameChangedEvent.Kind.PROJECT, event.getUserId()));
+        }
+    }
+    
+    private List<Named> list(NameChangedEvent.Kind kind, Long userId) {
+        return names.get(new Key(kind, userId), this::load);
+    }
+    
+    private List<Named> load(Key key) {
+        return switch (key.kind()) {
+            case FOLDER -> named(noteFolderRepository.findNamesByUserId(key.userId()));
+            case WORKSPACE -> named(workspaceRepository.findNamesByOwnerId(key.userId()));
+            case PROJECT -> named(projectRepository.findTitlesByUserId(key.userId()));
+            case CATEGORY -> financeCategoryRepository.findNamesByUserId(key.userId()).stream()
+                    .map(row -> new Named(row.getId(), row.getTitle(), foldedKey(row.getTitle()), row.getType().name()))
+                    .collect(Collectors.toList());
+        };
+    }
+    
+    private static List<Named> named(List<? extends TitleRow> rows) {
+        return rows.stream()
+                .map(row -> new Named(row.getId(), row.getTitle(), foldedKey(row.getTitle()), null))
+                .collect(Collectors.toList());
+    }
+    
+    private static Optional<Long> bestMatch(List<Named> candidates, String name) {
+        if (isBlank(name)) {
+            return Optional.empty();
+        }
+        String query = foldedKey(name);
+        Named best = null;
+        int bestScore = Integer.MAX_VALUE;
+        for (Named candidate : candidates) {
+            int score = score(candidate.key(), query);
+            // On a tie keep the earlier candidate (own categories before shared ones)
+            if (score < bestScore) {
+                best = candidate;
+                bestScore = score;
+            }
+        }
+        return best != null ? Optional.of(best.id()) : Optional.empty();
+    }
+    
+    private static int score(String candidate, String query) {
+        if (candidate.isEmpty() || query.isEmpty()) {
+            return Integer.MAX_VALUE;
+        }
+        if (candidate.equals(query)) {
+            return EXACT;
+        }
+        if (candidate.startsWith(query) || query.startsWith(candidate)) {
+            return PREFIX;
+        }
+        if (candidate.contains(query) || query.contains(candidate)) {
+            return CONTAINS;
+        }
+        // Allow about one typo per 4 characters (at least 1)
+        int maxDistance = Math.max(1, query.length() / 4);
+        int distance = editDistance(candidate, query, maxDistance);
+        return distance <= maxDistance ? EDIT_BASE + distance : Integer.MAX_VALUE;
+    }
+    
+    // Levenshtein distance, stops early once it exceeds limit
+    private static int editDistance(String a, String b, int limit) {
+        if (Math.abs(a.length() - b.length()) > limit) {
+            return limit + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+    
+    private static String foldedKey(String name) {
+        return String.join(" ", TextFolding.terms(name));
+    }
+    
+    private static boolean isBlank(String name) {
+        return name == null || name.isBlank();
+    }
+    
+    private record Key(NameChangedEvent.Kind kind, Long userId) {
+    }
+    
+    private record Named(Long id, String name, String key, String type) {
+    }
+}
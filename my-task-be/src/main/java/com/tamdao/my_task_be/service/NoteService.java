@@ -5,17 +5,23 @@ import com.tamdao.my_task_be.dto.response.NoteResponse;
 import com.tamdao.my_task_be.entity.Note;
 import com.tamdao.my_task_be.entity.NoteFolder;
 import com.tamdao.my_task_be.entity.User;
+import com.tamdao.my_task_be.event.ContentChangedEvent;
+import com.tamdao.my_task_be.event.NameChangedEvent;
 import com.tamdao.my_task_be.exception.BadRequestException;
 import com.tamdao.my_task_be.exception.ResourceNotFoundException;
 import com.tamdao.my_task_be.repository.NoteFolderRepository;
 import com.tamdao.my_task_be.repository.NoteRepository;
-import com.tamdao.my_task_be.repository.UserRepository;
+import com.tamdao.my_task_be.security.CurrentUserProvider;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,12 +30,11 @@ public class NoteService {
     
     private final NoteRepository noteRepository;
     private final NoteFolderRepository noteFolderRepository;
-    private final UserRepository userRepository;
+    private final CurrentUserProvider currentUserProvider;
+    private final ApplicationEventPublisher eventPublisher;
     
     private User getCurrentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new BadRequestException("Không tìm thấy người dùng"));
+        return currentUserProvider.getCurrentUser();
     }
     
     public List<NoteResponse> getAllNotes() {
@@ -82,18 +87,44 @@ public class NoteService {
             }
         }
         
-        Note note = Note.builder()
-                .title(request.getTitle())
-                .content(request.getContent())
-                .folder(folder)
-                .isPinned(request.getIsPinned() != null ? request.getIsPinned() : false)
-                .user(user)
-                .build();
+        Note note = buildNote(request, folder, user);
         
         note = noteRepository.save(note);
+        publishChange(ContentChangedEvent.Type.CREATED, note, user);
         return NoteResponse.fromEntity(note);
     }
     
+    // Creates notes with one saveAll; folders are loaded once for the batch
+    @Transactional
+    public List<NoteResponse> createNotes(List<NoteRequest> requests, User user) {
+        Map<Long, NoteFolder> folders = noteFolderRepository.findAllById(requests.stream()
+                        .map(NoteRequest::getFolderId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(NoteFolder::getId, Function.identity()));
+        
+        List<Note> notes = new ArrayList<>();
+        for (NoteRequest request : requests) {
+            NoteFolder folder = null;
+            if (request.getFolderId() != null) {
+                folder = folders.get(request.getFolderId());
+                if (folder == null) {
+                    throw new ResourceNotFoundException("Folder", request.getFolderId());
+                }
+                if (!folder.getUser().getId().equals(user.getId())) {
+                    throw new BadRequestException("Bạn không có quyền sử dụng folder này");
+                }
+            }
+            notes.add(buildNote(request, folder, user));
+        }
+        
+        List<Note> saved = noteRepository.saveAll(notes);
+        saved.forEach(note -> publishChange(ContentChangedEvent.Type.CREATED, note, user));
+        return saved.stream()
+                .map(NoteResponse::fromEntity)
+                .collect(Collectors.toList());
+    }
+    
     @Transactional
     public NoteResponse updateNote(Long id, NoteRequest request) {
         Note note = noteRepository.findById(id)
@@ -120,6 +151,7 @@ public class NoteService {
         }
         
         note = noteRepository.save(note);
+        publishChange(ContentChangedEvent.Type.UPDATED, note, user);
         return NoteResponse.fromEntity(note);
     }
     
@@ -149,6 +181,7 @@ public class NoteService {
         }
         
         noteRepository.delete(note);
+        publishChange(ContentChangedEvent.Type.DELETED, note, user);
     }
     
     // Note Folders
@@ -166,7 +199,9 @@ public class NoteService {
                 .user(user)
                 .build();
         
-        return noteFolderRepository.save(folder);
+        folder = noteFolderRepository.save(folder);
+        eventPublisher.publishEvent(new NameChangedEvent(NameChangedEvent.Kind.FOLDER, user.getId()));
+        return folder;
     }
     
     @Transactional
@@ -187,5 +222,23 @@ public class NoteService {
                 });
         
         noteFolderRepository.delete(folder);
+        eventPublisher.publishEvent(new NameChangedEvent(NameChangedEvent.Kind.FOLDER, user.getId()));
+    }
+    
+    private Note buildNote(NoteRequest request, NoteFolder folder, User user) {
+        return Note.builder()
+                .title(request.getTitle())
+                .content(request.getContent())
+                .folder(folder)
+                .isPinned(request.getIsPinned() != null ? request.getIsPinned() : false)
+                .user(user)
+                .build();
+    }
+    
+    private void publishChange(ContentChangedEvent.Type type, Note note, User user) {
+        boolean deleted = type == ContentChangedEvent.Type.DELETED;
+        eventPublisher.publishEvent(new ContentChangedEvent(type, ContentChangedEvent.Kind.NOTE,
+                note.getId(), user.getId(), null,
+                deleted ? null : note.getTitle(), deleted ? null : note.getContent()));
     }
 }
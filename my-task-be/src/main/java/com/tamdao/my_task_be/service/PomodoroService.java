@@ -3,13 +3,14 @@ package com.tamdao.my_task_be.service;
 import com.tamdao.my_task_be.entity.PomodoroSession;
 import com.tamdao.my_task_be.entity.Task;
 import com.tamdao.my_task_be.entity.User;
+import com.tamdao.my_task_be.event.PomodoroCompletedEvent;
 import com.tamdao.my_task_be.exception.BadRequestException;
 import com.tamdao.my_task_be.exception.ResourceNotFoundException;
 import com.tamdao.my_task_be.repository.PomodoroSessionRepository;
 import com.tamdao.my_task_be.repository.TaskRepository;
-import com.tamdao.my_task_be.repository.UserRepository;
+import com.tamdao.my_task_be.security.CurrentUserProvider;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,12 +26,11 @@ public class PomodoroService {
     
     private final PomodoroSessionRepository sessionRepository;
     private final TaskRepository taskRepository;
-    private final UserRepository userRepository;
+    private final CurrentUserProvider currentUserProvider;
+    private final ApplicationEventPublisher eventPublisher;
     
     private User getCurrentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new BadRequestException("Không tìm thấy người dùng"));
+        return currentUserProvider.getCurrentUser();
     }
     
     public List<PomodoroSession> getSessionsByDate(LocalDate date) {
@@ -70,9 +70,15 @@ public class PomodoroService {
             throw new BadRequestException("Bạn không có quyền kết thúc session này");
         }
         
+        boolean firstCompletion = session.getCompletedAt() == null;
         session.setCompletedAt(LocalDateTime.now());
         
-        return sessionRepository.save(session);
+        session = sessionRepository.save(session);
+        if (firstCompletion) {
+            eventPublisher.publishEvent(new PomodoroCompletedEvent(session.getId(), user.getId(),
+                    session.getStartedAt().toLocalDate(), session.getDuration()));
+        }
+        return session;
     }
     
     @Transactional
@@ -86,6 +92,11 @@ public class PomodoroService {
         }
         
         sessionRepository.delete(session);
+        if (session.getCompletedAt() != null) {
+            // Take back the minutes added to the rollup
+            eventPublisher.publishEvent(new PomodoroCompletedEvent(session.getId(), user.getId(),
+                    session.getStartedAt().toLocalDate(), -session.getDuration()));
+        }
     }
     
     public Map<String, Object> getStats(LocalDate startDate, LocalDate endDate) {
@@ -5,18 +5,21 @@ import com.tamdao.my_task_be.dto.response.ProjectResponse;
 import com.tamdao.my_task_be.entity.Project;
 import com.tamdao.my_task_be.entity.User;
 import com.tamdao.my_task_be.entity.Workspace;
+import com.tamdao.my_task_be.event.ContentChangedEvent;
 import com.tamdao.my_task_be.exception.BadRequestException;
 import com.tamdao.my_task_be.exception.ResourceNotFoundException;
 import com.tamdao.my_task_be.repository.ProjectRepository;
-import com.tamdao.my_task_be.repository.TaskRepository;
-import com.tamdao.my_task_be.repository.UserRepository;
 import com.tamdao.my_task_be.repository.WorkspaceRepository;
+import com.tamdao.my_task_be.security.CurrentUserProvider;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,13 +29,11 @@ public class ProjectService {
     
     private final ProjectRepository projectRepository;
     private final WorkspaceRepository workspaceRepository;
-    private final UserRepository userRepository;
-    private final TaskRepository taskRepository;
+    private final CurrentUserProvider currentUserProvider;
+    private final ApplicationEventPublisher eventPublisher;
     
     private User getCurrentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new BadRequestException("Không tìm thấy người dùng"));
+        return currentUserProvider.getCurrentUser();
     }
     
     public List<ProjectResponse> getProjectsByWorkspace(Long workspaceId) {
@@ -49,13 +50,13 @@ public class ProjectService {
                 .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
     public List<ProjectResponse> getAllProjects(Project.ProjectStatus status) {
         User user = getCurrentUser();
         List<Project> projects = projectRepository.findByCreatedByOrderByCreatedAtDesc(user);
         
-        // Sync statuses and filter
+        // Status is kept in sync by ProjectTaskCounterListener on task writes
         return projects.stream()
-                .peek(this::syncProjectStatus)
                 .filter(p -> status == null || p.getStatus() == status)
                 .map(ProjectResponse::fromEntity)
                 .collect(Collectors.toList());
@@ -83,23 +84,40 @@ public class ProjectService {
             throw new BadRequestException("Bạn không có quyền tạo project trong workspace này");
         }
         
-        Project project = Project.builder()
-                .name(request.getName())
-                .description(request.getDescription())
-                .status(Project.ProjectStatus.ACTIVE)
-                .priority(request.getPriority() != null ? Project.ProjectPriority.valueOf(request.getPriority()) : Project.ProjectPriority.MEDIUM)
-                .icon(request.getIcon())
-                .color(request.getColor())
-                .workspace(workspace)
-                .createdBy(user)
-                .startDate(request.getStartDate())
-                .dueDate(request.getDueDate())
-                .build();
+        Project project = buildProject(request, workspace, user);
         
         project = projectRepository.save(project);
+        publishChange(ContentChangedEvent.Type.CREATED, project, user);
         return ProjectResponse.fromEntity(project);
     }
     
+    // Creates projects with one saveAll; workspaces are loaded once for the batch
+    @Transactional
+    public List<ProjectResponse> createProjects(List<ProjectRequest> requests, User user) {
+        Map<Long, Workspace> workspaces = workspaceRepository.findAllById(requests.stream()
+                        .map(ProjectRequest::getWorkspaceId)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Workspace::getId, Function.identity()));
+        
+        List<Project> projects = new ArrayList<>();
+        for (ProjectRequest request : requests) {
+            Workspace workspace = workspaces.get(request.getWorkspaceId());
+            if (workspace == null) {
+                throw new ResourceNotFoundException("Workspace", request.getWorkspaceId());
+            }
+            if (!workspace.getOwner().getId().equals(user.getId())) {
+                throw new BadRequestException("Bạn không có quyền tạo project trong workspace này");
+            }
+            projects.add(buildProject(request, workspace, user));
+        }
+        
+        List<Project> saved = projectRepository.saveAll(projects);
+        saved.forEach(project -> publishChange(ContentChangedEvent.Type.CREATED, project, user));
+        return saved.stream()
+                .map(ProjectResponse::fromEntity)
+                .collect(Collectors.toList());
+    }
+    
     @Transactional
     public ProjectResponse updateProject(Long id, ProjectRequest request) {
         Project project = projectRepository.findById(id)
@@ -124,6 +142,7 @@ public class ProjectService {
         }
         
         project = projectRepository.save(project);
+        publishChange(ContentChangedEvent.Type.UPDATED, project, user);
         return ProjectResponse.fromEntity(project);
     }
     
@@ -137,20 +156,30 @@ public class ProjectService {
             throw new BadRequestException("Bạn không có quyền xóa project này");
         }
         
+        // Publish before deleting so listeners can still read the project's tasks
+        publishChange(ContentChangedEvent.Type.DELETED, project, user);
         projectRepository.delete(project);
     }
-    public void syncProjectStatus(Project project) {
-        long totalTasks = taskRepository.countByProject(project);
-        if (totalTasks == 0) return;
-        
-        long undoneTasks = taskRepository.countByProjectAndStatusNot(project, com.tamdao.my_task_be.entity.Task.TaskStatus.DONE);
-        
-        if (undoneTasks == 0 && project.getStatus() == Project.ProjectStatus.ACTIVE) {
-            project.setStatus(Project.ProjectStatus.COMPLETED);
-            projectRepository.save(project);
-        } else if (undoneTasks > 0 && project.getStatus() == Project.ProjectStatus.COMPLETED) {
-            project.setStatus(Project.ProjectStatus.ACTIVE);
-            projectRepository.save(project);
-        }
+    
+    private Project buildProject(ProjectRequest request, Workspace workspace, User user) {
+        return Project.builder()
+                .name(request.getName())
+                .description(request.getDescription())
+                .status(Project.ProjectStatus.ACTIVE)
+                .priority(request.getPriority() != null ? Project.ProjectPriority.valueOf(request.getPriority()) : Project.ProjectPriority.MEDIUM)
+                .icon(request.getIcon())
+                .color(request.getColor())
+                .workspace(workspace)
+                .createdBy(user)
+                .startDate(request.getStartDate())
+                .dueDate(request.getDueDate())
+                .build();
+    }
+    
+    private void publishChange(ContentChangedEvent.Type type, Project project, User user) {
+        boolean deleted = type == ContentChangedEvent.Type.DELETED;
+        eventPublisher.publishEvent(new ContentChangedEvent(type, ContentChangedEvent.Kind.PROJECT,
+                project.getId(), user.getId(), null,
+                deleted ? null : project.getName(), deleted ? null : project.getDescription()));
     }
 }
@@ -0,0 +1,44 @@
+package com.tamdao.my_task_be.service;
+
+import com.tamdao.my_task_be.entity.Project;
+import com.tamdao.my_task_be.entity.Task;
+import com.tamdao.my_task_be.event.TaskChangedEvent;
+import com.tamdao.my_task_be.repository.ProjectRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+// Keeps Project taskCount/doneCount and the derived status; runs inside the task write's transaction
+@Component
+@RequiredArgsConstructor
+public class ProjectTaskCounterListener {
+
+    private final ProjectRepository projectRepository;
+
+    @EventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        int taskDelta = switch (event.getType()) {
+            case CREATED -> 1;
+            case DELETED -> -1;
+            case UPDATED -> 0;
+        };
+        int doneDelta = isDone(event.getStatus()) - isDone(event.getPreviousStatus());
+        if (taskDelta == 0 && doneDelta == 0) {
+            return;
+        }
+
+        projectRepository.adjustTaskCounts(event.getProjectId(), taskDelta, doneDelta);
+        projectRepository.syncStatusFromCounts(event.getProjectId(),
+                Project.ProjectStatus.ACTIVE, Project.ProjectStatus.COMPLETED);
+    }
+
+    @Transactional
+    public int rebuildCounters() {
+        return projectRepository.rebuildTaskCounts(Task.TaskStatus.DONE);
+    }
+
+    private static int isDone(Task.TaskStatus status) {
+        return status == Task.TaskStatus.DONE ? 1 : 0;
+    }
+}
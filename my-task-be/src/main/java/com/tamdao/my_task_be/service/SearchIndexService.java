@@ -0,0 +1,130 @@
+package com.tamdao.my_task_be.service;
+
+import com.tamdao.my_task_be.event.ContentChangedEvent;
+import com.tamdao.my_task_be.repository.SearchDocumentRepository;
+import com.tamdao.my_task_be.util.TextFolding;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+// Keeps search_documents in sync with ContentChangedEvent and manages the FULLTEXT indexes
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SearchIndexService {
+    
+    private static final int REBUILD_BATCH_SIZE = 500;
+    private static final Map<String, String> FULLTEXT_INDEXES = Map.of(
+            "ft_search_documents_title", "folded_title",
+            "ft_search_documents_body", "folded_body",
+            "ft_search_documents_all", "folded_title, folded_body");
+    private static final String UPSERT_SQL = "INSERT INTO search_documents " +
+            "(user_id, kind, ref_id, parent_id, title, body, folded_title, folded_body, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, NOW()) " +
+            "ON DUPLICATE KEY UPDATE user_id = VALUES(user_id), parent_id = VALUES(parent_id), " +
+            "title = VALUES(title), body = VALUES(body), folded_title = VALUES(folded_title), " +
+            "folded_body = VALUES(folded_body), updated_at = NOW()";
+    
+    private final SearchDocumentRepository searchDocumentRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    
+    private volatile boolean fulltextAvailable;
+    
+    @EventListener
+    public void onContentChanged(ContentChangedEvent event) {
+        if (event.getKind() == ContentChangedEvent.Kind.GOAL) {
+            // Goals are only offered by typeahead, not full-text search
+            return;
+        }
+        if (event.getType() == ContentChangedEvent.Type.DELETED) {
+            searchDocumentRepository.deleteByKindAndRefId(event.getKind(), event.getId());
+            if (event.getKind() == ContentChangedEvent.Kind.PROJECT) {
+                // Tasks deleted with their project (cascade) publish no event of their own
+                searchDocumentRepository.deleteByKindAndParentId(ContentChangedEvent.Kind.TASK, event.getId());
+            }
+            return;
+        }
+        String title = TextFolding.normalize(event.getTitle());
+        String body = TextFolding.normalize(event.getBody());
+        searchDocumentRepository.upsert(event.getUserId(), event.getKind().name(), event.getId(), event.getParentId(),
+                title, body, TextFolding.fold(title), TextFolding.fold(body));
+    }
+    
+    public boolean isFulltextAvailable() {
+        return fulltextAvailable;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        fulltextAvailable = ensureFulltextIndexes();
+    }
+    
+    // Upserts tasks, notes and projects in batches, then deletes documents whose source is gone
+    public int rebuild() {
+        Timestamp startedAt = jdbcTemplate.queryForObject("SELECT NOW()", Timestamp.class);
+        int total = 0;
+        total += copy(ContentChangedEvent.Kind.TASK,
+                "SELECT p.created_by, t.id, t.project_id, t.title, t.description FROM tasks t " +
+                "JOIN projects p ON p.id = t.project_id WHERE t.id > ? ORDER BY t.id LIMIT ?");
+        total += copy(ContentChangedEvent.Kind.NOTE,
+                "SELECT n.user_id, n.id, NULL, n.title, n.content FROM notes n WHERE n.id > ? ORDER BY n.id LIMIT ?");
+        total += copy(ContentChangedEvent.Kind.PROJECT,
+                "SELECT p.created_by, p.id, NULL, p.name, p.description FROM projects p WHERE p.id > ? ORDER BY p.id LIMIT ?");
+        Integer stale = transactionTemplate.execute(status ->
+                jdbcTemplate.update("DELETE FROM search_documents WHERE updated_at < ?", startedAt));
+        log.info("Đã xóa {} tài liệu tìm kiếm không còn nguồn", stale);
+        return total;
+    }
+    
+    private int copy(ContentChangedEvent.Kind kind, String pageSql) {
+        int count = 0;
+        long lastId = 0;
+        while (true) {
+            List<Object[]> batch = jdbcTemplate.query(pageSql, (rs, rowNum) -> {
+                String title = TextFolding.normalize(rs.getString(4));
+                String body = TextFolding.normalize(rs.getString(5));
+                return new Object[]{rs.getLong(1), kind.name(), rs.getLong(2), rs.getObject(3),
+                        title, body, TextFolding.fold(title), TextFolding.fold(body)};
+            }, lastId, REBUILD_BATCH_SIZE);
+            if (batch.isEmpty()) {
+                return count;
+            }
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_SQL, batch));
+            count += batch.size();
+            lastId = (Long) batch.get(batch.size() - 1)[2];
+            if (batch.size() < REBUILD_BATCH_SIZE) {
+                return count;
+            }
+        }
+    }
+    
+    private boolean ensureFulltextIndexes() {
+        try {
+            for (Map.Entry<String, String> index : FULLTEXT_INDEXES.entrySet()) {
+                Integer existing = jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM information_schema.statistics " +
+                        "WHERE table_schema = DATABASE() AND table_name = 'search_documents' AND index_name = ?",
+                        Integer.class, index.getKey());
+                if (existing == null || existing == 0) {
+                    jdbcTemplate.execute("ALTER TABLE search_documents ADD FULLTEXT INDEX "
+                            + index.getKey() + " (" + index.getValue() + ")");
+                    log.info("Đã tạo chỉ mục FULLTEXT {}", index.getKey());
+                }
+            }
+            return true;
+        } catch (DataAccessException e) {
+            log.warn("Không tạo được chỉ mục FULLTEXT, tìm kiếm sẽ dùng LIKE: {}", e.getMessage());
+            return false;
+        }
+    }
+}
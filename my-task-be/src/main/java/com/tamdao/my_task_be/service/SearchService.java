@@ -0,0 +1,206 @@
+package com.tamdao.my_task_be.service;
+
+import com.tamdao.my_task_be.dto.response.SearchResponse;
+import com.tamdao.my_task_be.entity.Project;
+import com.tamdao.my_task_be.entity.Task;
+import com.tamdao.my_task_be.event.ContentChangedEvent;
+import com.tamdao.my_task_be.repository.ProjectRepository;
+import com.tamdao.my_task_be.repository.SearchDocumentRepository;
+import com.tamdao.my_task_be.repository.TaskRepository;
+import com.tamdao.my_task_be.security.CurrentUserProvider;
+import com.tamdao.my_task_be.util.TextFolding;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// FULLTEXT search over folded text, with a LIKE fallback when every term is shorter than the InnoDB token size
+@Service
+@RequiredArgsConstructor
+public class SearchService {
+    
+    // Default innodb_ft_min_token_size
+    private static final int MIN_FULLTEXT_TERM = 3;
+    private static final int MAX_HITS = 20;
+    private static final int MAX_TASKS = 5;
+    private static final int MAX_PROJECTS = 3;
+    private static final int MAX_NOTES = 5;
+    private static final int SNIPPET_LENGTH = 160;
+    
+    private final SearchDocumentRepository searchDocumentRepository;
+    private final SearchIndexService searchIndexService;
+    private final TaskRepository taskRepository;
+    private final ProjectRepository projectRepository;
+    private final CurrentUserProvider currentUserProvider;
+    
+    @Transactional(readOnly = true)
+    public SearchResponse search(String query) {
+        Long userId = currentUserProvider.getCurrentUserId();
+        List<String> terms = TextFolding.terms(query);
+        if (terms.isEmpty()) {
+            return SearchResponse.builder()
+                    .tasks(List.of()).projects(List.of()).notes(List.of()).hits(List.of())
+                    .build();
+        }
+        
+        List<SearchResponse.Hit> hits = findHits(userId, terms);
+        
+        List<Long> taskIds = idsOf(hits, ContentChangedEvent.Kind.TASK, MAX_TASKS);
+        Map<Long, Task> tasksById = taskIds.isEmpty() ? Map.of() : taskRepository.findWithProjectByIdIn(taskIds).stream()
+                .collect(Collectors.toMap(Task::getId, Function.identity()));
+        List<SearchResponse.TaskItem> tasks = taskIds.stream()
+                .map(tasksById::get)
+                .filter(t -> t != null)
+                .map(t -> SearchResponse.TaskItem.builder()
+                        .id(t.getId())
+                        .title(t.getTitle())
+                        .status(t.getStatus().name())
+                        .projectId(t.getProject() != null ? t.getProject().getId() : null)
+                        .projectName(t.getProject() != null ? t.getProject().getName() : null)
+                        .build())
+                .collect(Collectors.toList());
+        
+        List<Long> projectIds = idsOf(hits, ContentChangedEvent.Kind.PROJECT, MAX_PROJECTS);
+        Map<Long, Project> projectsById = projectIds.isEmpty() ? Map.of() : projectRepository.findAllById(projectIds).stream()
+                .collect(Collectors.toMap(Project::getId, Function.identity()));
+        List<SearchResponse.ProjectItem> projects = projectIds.stream()
+                .map(projectsById::get)
+                .filter(p -> p != null)
+                .map(p -> SearchResponse.ProjectItem.builder()
+                        .id(p.getId())
+                        .name(p.getName())
+                        .color(p.getColor())
+                        .icon(p.getIcon())
+                        .build())
+                .collect(Collectors.toList());
+        
+        List<SearchResponse.NoteItem> notes = hits.stream()
+                .filter(h -> h.getKind().equals(ContentChangedEvent.Kind.NOTE.name()))
+                .limit(MAX_NOTES)
+                .map(h -> SearchResponse.NoteItem.builder()
+                        .id(h.getId())
+                        .title(h.getTitle())
+                        .snippet(h.getSnippet())
+                        .build())
+                .collect(Collectors.toList());
+        
+        return SearchResponse.builder()
+                .tasks(tasks)
+                .projects(projects)
+                .notes(notes)
+                .hits(hits)
+                .build();
+    }
+    
+    private List<SearchResponse.Hit> findHits(Long userId, List<String> terms) {
+        List<String> indexedTerms = terms.stream()
+                .filter(term -> term.length() >= MIN_FULLTEXT_TERM)
+                .collect(Collectors.toList());
+        
+        List<SearchDocumentRepository.SearchHitRow> rows;
+        if (searchIndexService.isFulltextAvailable() && !indexedTerms.isEmpty()) {
+            String booleanQuery = indexedTerms.stream()
+                    .map(term -> "+" + term + "*")
+                    .collect(Collectors.joining(" "));
+            rows = searchDocumentRepository.searchFulltext(userId, booleanQuery, MAX_HITS * 2);
+        } else {
+            String longest = terms.stream().max(Comparator.comparingInt(String::length)).orElseThrow();
+            rows = searchDocumentRepository.searchLike(userId, "%" + longest + "%", MAX_HITS * 2);
+        }
+        
+        // Short terms are not in the FULLTEXT index, so filter them again on the folded text
+        List<SearchResponse.Hit> hits = new ArrayList<>();
+        for (SearchDocumentRepository.SearchHitRow row : rows) {
+            String title = row.getTitle() != null ? row.getTitle() : "";
+            String body = row.getBody() != null ? row.getBody() : "";
+            String foldedTitle = TextFolding.fold(title);
+            String foldedBody = TextFolding.fold(body);
+            boolean matchesAll = terms.stream()
+                    .allMatch(term -> foldedTitle.contains(term) || foldedBody.contains(term));
+            if (!matchesAll) {
+                continue;
+            }
+            hits.add(SearchResponse.Hit.builder()
+                    .kind(row.getKind())
+                    .id(row.getRefId())
+                    .parentId(row.getParentId())
+                    .title(title)
+                    .titleHighlight(highlight(title, foldedTitle, terms, 0, title.length()))
+                    .snippet(snippet(body, foldedBody, terms))
+                    .score(row.getScore())
+                    .build());
+            if (hits.size() >= MAX_HITS) {
+                break;
+            }
+        }
+        return hits;
+    }
+    
+    private static List<Long> idsOf(List<SearchResponse.Hit> hits, ContentChangedEvent.Kind kind, int limit) {
+        return hits.stream()
+                .filter(h -> h.getKind().equals(kind.name()))
+                .limit(limit)
+                .map(SearchResponse.Hit::getId)
+                .collect(Collectors.toList());
+    }
+    
+    private static String snippet(String text, String folded, List<String> terms) {
+        if (text.isEmpty()) {
+            return "";
+        }
+        int first = -1;
+        for (String term : terms) {
+            int index = folded.indexOf(term);
+            if (index >= 0 && (first < 0 || index < first)) {
+                first = index;
+            }
+        }
+        int start = Math.max(0, (first < 0 ? 0 : first) - SNIPPET_LENGTH / 4);
+        int end = Math.min(text.length(), start + SNIPPET_LENGTH);
+        String snippet = highlight(text, folded, terms, start, end);
+        return (start > 0 ? "…" : "") + snippet + (end < text.length() ? "…" : "");
+    }
+    
+    // Escapes [start, end) of the original text and wraps matches in <mark>; folding keeps offsets aligned
+    private static String highlight(String text, String folded, List<String> terms, int start, int end) {
+        boolean[] marked = new boolean[end - start];
+        for (String term : terms) {
+            int from = Math.max(0, start - term.length() + 1);
+            for (int index = folded.indexOf(term, from); index >= 0 && index < end; index = folded.indexOf(term, index + 1)) {
+                for (int i = Math.max(index, start); i < Math.min(index + term.length(), end); i++) {
+                    marked[i - start] = true;
+                }
+            }
+        }
+        StringBuilder html = new StringBuilder(end - start + 32);
+        boolean open = false;
+        for (int i = start; i < end; i++) {
+            boolean mark = marked[i - start];
+            if (mark && !open) {
+                html.append("<mark>");
+                open = true;
+            } else if (!mark && open) {
+                html.append("</mark>");
+                open = false;
+            }
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> html.append("&lt;");
+                case '>' -> html.append("&gt;");
+                case '&' -> html.append("&amp;");
+                case '"' -> html.append("&quot;");
+                default -> html.append(c);
+            }
+        }
+        if (open) {
+            html.append("</mark>");
+        }
+        return html.toString();
+    }
+}
@@ -1,41 +1,55 @@
 package com.tamdao.my_task_be.service;
 
 import com.tamdao.my_task_be.dto.request.TaskRequest;
+import com.tamdao.my_task_be.dto.response.KanbanColumnResponse;
+import com.tamdao.my_task_be.dto.response.TaskCardResponse;
 import com.tamdao.my_task_be.dto.response.TaskResponse;
 import com.tamdao.my_task_be.entity.Label;
 import com.tamdao.my_task_be.entity.Project;
 import com.tamdao.my_task_be.entity.Task;
 import com.tamdao.my_task_be.entity.User;
 import com.tamdao.my_task_be.exception.BadRequestException;
+import com.tamdao.my_task_be.event.ContentChangedEvent;
+import com.tamdao.my_task_be.event.TaskChangedEvent;
 import com.tamdao.my_task_be.exception.ResourceNotFoundException;
 import com.tamdao.my_task_be.repository.LabelRepository;
 import com.tamdao.my_task_be.repository.ProjectRepository;
 import com.tamdao.my_task_be.repository.TaskRepository;
 import com.tamdao.my_task_be.repository.UserRepository;
+import com.tamdao.my_task_be.security.CurrentUserProvider;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class TaskService {
     
+    private static final int DEFAULT_KANBAN_PAGE_SIZE = 50;
+    private static final int MAX_KANBAN_PAGE_SIZE = 200;
+    
     private final TaskRepository taskRepository;
     private final ProjectRepository projectRepository;
     private final UserRepository userRepository;
+    private final CurrentUserProvider currentUserProvider;
     private final LabelRepository labelRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
     private User getCurrentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new BadRequestException("Không tìm thấy người dùng"));
+        return currentUserProvider.getCurrentUser();
     }
     
     public List<TaskResponse> getTasksByProject(Long projectId) {
@@ -66,6 +80,41 @@ public class TaskService {
                 .collect(Collectors.groupingBy(TaskResponse::getStatus));
     }
     
+    public KanbanColumnResponse getKanbanColumn(Long projectId, Task.TaskStatus status,
+                                                Integer afterPosition, Long afterId, Integer size) {
+        int pageSize = size == null ? DEFAULT_KANBAN_PAGE_SIZE : Math.max(1, Math.min(size, MAX_KANBAN_PAGE_SIZE));
+        // Fetch one extra row to know whether there is a next page
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        
+        User user = getCurrentUser();
+        List<TaskCardResponse> cards;
+        if (projectId != null) {
+            Project project = projectRepository.findById(projectId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Project", projectId));
+            if (!project.getCreatedBy().getId().equals(user.getId())) {
+                throw new BadRequestException("Bạn không có quyền truy cập project này");
+            }
+            cards = taskRepository.findKanbanCardsByProject(projectId, status,
+                    afterId != null ? afterPosition : null, afterId, limit);
+        } else {
+            cards = taskRepository.findKanbanCardsByUser(user.getId(), status, afterId != null ? afterId : 0L, limit);
+        }
+        
+        boolean hasMore = cards.size() > pageSize;
+        if (hasMore) {
+            cards = cards.subList(0, pageSize);
+        }
+        TaskCardResponse last = cards.isEmpty() ? null : cards.get(cards.size() - 1);
+        
+        return KanbanColumnResponse.builder()
+                .status(status.name())
+                .tasks(cards)
+                .hasMore(hasMore)
+                .nextPosition(hasMore && projectId != null ? last.getPosition() : null)
+                .nextId(hasMore ? last.getId() : null)
+                .build();
+    }
+    
     public TaskResponse getTaskById(Long id) {
         Task task = taskRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Task", id));
@@ -106,24 +155,69 @@ public class TaskService {
             labels = new HashSet<>(labelRepository.findAllById(request.getLabelIds()));
         }
         
-        Task task = Task.builder()
-                .title(request.getTitle())
-                .description(request.getDescription())
-                .status(request.getStatus() != null ? request.getStatus() : Task.TaskStatus.TODO)
-                .priority(request.getPriority() != null ? request.getPriority() : Task.TaskPriority.MEDIUM)
-                .project(project)
-                .assignee(assignee)
-                .dueDate(request.getDueDate())
-                .estimatedHours(request.getEstimatedHours())
-                .position(maxPosition + 1)
-                .labels(labels)
-                .build();
+        Task task = buildTask(request, project, assignee, labels, maxPosition + 1);
         
         task = taskRepository.save(task);
-        checkAndUpdateProjectStatus(task.getProject());
+        publishChange(TaskChangedEvent.Type.CREATED, task, null, null, user);
         return TaskResponse.fromEntity(task);
     }
     
+    // Creates tasks with one saveAll; projects, labels and assignees are loaded once for the batch
+    @Transactional
+    public List<TaskResponse> createTasks(List<TaskRequest> requests, User user) {
+        Map<Long, Project> projects = projectRepository.findAllById(requests.stream()
+                        .map(TaskRequest::getProjectId)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Project::getId, Function.identity()));
+        Map<Long, Label> labels = labelRepository.findAllById(requests.stream()
+                        .filter(request -> request.getLabelIds() != null)
+                        .flatMap(request -> request.getLabelIds().stream())
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Label::getId, Function.identity()));
+        Map<Long, User> assignees = userRepository.findAllById(requests.stream()
+                        .map(TaskRequest::getAssigneeId)
+                        .filter(id -> id != null && !id.equals(user.getId()))
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        assignees.put(user.getId(), user);
+        
+        // Max position is queried once per project/status, then incremented within the batch
+        Map<String, Integer> positions = new HashMap<>();
+        List<Task> tasks = new ArrayList<>();
+        for (TaskRequest request : requests) {
+            Project project = projects.get(request.getProjectId());
+            if (project == null) {
+                throw new ResourceNotFoundException("Project", request.getProjectId());
+            }
+            if (!project.getCreatedBy().getId().equals(user.getId())) {
+                throw new BadRequestException("Bạn không có quyền tạo task trong project này");
+            }
+            Long assigneeId = request.getAssigneeId() != null ? request.getAssigneeId() : user.getId();
+            User assignee = assignees.get(assigneeId);
+            if (assignee == null) {
+                throw new ResourceNotFoundException("User", assigneeId);
+            }
+            Set<Label> taskLabels = request.getLabelIds() == null ? new HashSet<>() : request.getLabelIds().stream()
+                    .map(labels::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            
+            Task.TaskStatus status = request.getStatus() != null ? request.getStatus() : Task.TaskStatus.TODO;
+            String key = project.getId() + ":" + status;
+            int position = positions.computeIfAbsent(key,
+                    k -> taskRepository.findMaxPositionByProjectAndStatus(project, status)) + 1;
+            positions.put(key, position);
+            
+            tasks.add(buildTask(request, project, assignee, taskLabels, position));
+        }
+        
+        List<Task> saved = taskRepository.saveAll(tasks);
+        saved.forEach(task -> publishChange(TaskChangedEvent.Type.CREATED, task, null, null, user));
+        return saved.stream()
+                .map(TaskResponse::fromEntity)
+                .collect(Collectors.toList());
+    }
+    
     @Transactional
     public TaskResponse updateTask(Long id, TaskRequest request) {
         Task task = taskRepository.findById(id)
@@ -134,6 +228,8 @@ public class TaskService {
             throw new BadRequestException("Bạn không có quyền chỉnh sửa task này");
         }
         
+        Task.TaskStatus previousStatus = task.getStatus();
+        LocalDateTime previousCompletedAt = task.getCompletedAt();
         task.setTitle(request.getTitle());
         task.setDescription(request.getDescription());
         
@@ -161,9 +257,10 @@ public class TaskService {
             Set<Label> labels = new HashSet<>(labelRepository.findAllById(request.getLabelIds()));
             task.setLabels(labels);
         }
+        updateCompletedAt(task, previousStatus);
         
         task = taskRepository.save(task);
-        checkAndUpdateProjectStatus(task.getProject());
+        publishChange(TaskChangedEvent.Type.UPDATED, task, previousStatus, previousCompletedAt, user);
         return TaskResponse.fromEntity(task);
     }
     
@@ -177,15 +274,18 @@ public class TaskService {
             throw new BadRequestException("Bạn không có quyền chỉnh sửa task này");
         }
         
+        Task.TaskStatus previousStatus = task.getStatus();
+        LocalDateTime previousCompletedAt = task.getCompletedAt();
         task.setStatus(newStatus);
         if (newPosition != null) {
             task.setPosition(newPosition);
         }
+        updateCompletedAt(task, previousStatus);
         
         task = taskRepository.save(task);
         
-        // Auto update project status
-        checkAndUpdateProjectStatus(task.getProject());
+        // Project counters and status are updated by ProjectTaskCounterListener
+        publishChange(TaskChangedEvent.Type.UPDATED, task, previousStatus, previousCompletedAt, user);
         
         return TaskResponse.fromEntity(task);
     }
@@ -200,25 +300,45 @@ public class TaskService {
             throw new BadRequestException("Bạn không có quyền xóa task này");
         }
         
-        Project project = task.getProject();
         taskRepository.delete(task);
-        
-        // Update project status after deletion
-        checkAndUpdateProjectStatus(project);
+        publishChange(TaskChangedEvent.Type.DELETED, task, task.getStatus(), task.getCompletedAt(), user);
     }
-
-    private void checkAndUpdateProjectStatus(Project project) {
-        Long totalTasks = taskRepository.countByProject(project);
-        if (totalTasks == null || totalTasks == 0) return;
-        
-        long undoneTasks = taskRepository.countByProjectAndStatusNot(project, Task.TaskStatus.DONE);
-        
-        if (undoneTasks == 0 && project.getStatus() == Project.ProjectStatus.ACTIVE) {
-            project.setStatus(Project.ProjectStatus.COMPLETED);
-            projectRepository.save(project);
-        } else if (undoneTasks > 0 && project.getStatus() == Project.ProjectStatus.COMPLETED) {
-            project.setStatus(Project.ProjectStatus.ACTIVE);
-            projectRepository.save(project);
+    
+    private Task buildTask(TaskRequest request, Project project, User assignee, Set<Label> labels, int position) {
+        Task task = Task.builder()
+                .title(request.getTitle())
+                .description(request.getDescription())
+                .status(request.getStatus() != null ? request.getStatus() : Task.TaskStatus.TODO)
+                .priority(request.getPriority() != null ? request.getPriority() : Task.TaskPriority.MEDIUM)
+                .project(project)
+                .assignee(assignee)
+                .dueDate(request.getDueDate())
+                .estimatedHours(request.getEstimatedHours())
+                .position(position)
+                .labels(labels)
+                .build();
+        updateCompletedAt(task, null);
+        return task;
+    }
+    
+    private void updateCompletedAt(Task task, Task.TaskStatus previousStatus) {
+        if (task.getStatus() == Task.TaskStatus.DONE && previousStatus != Task.TaskStatus.DONE) {
+            task.setCompletedAt(LocalDateTime.now());
+        } else if (task.getStatus() != Task.TaskStatus.DONE) {
+            task.setCompletedAt(null);
         }
     }
+
+    private void publishChange(TaskChangedEvent.Type type, Task task, Task.TaskStatus previousStatus,
+                               LocalDateTime previousCompletedAt, User user) {
+        boolean deleted = type == TaskChangedEvent.Type.DELETED;
+        eventPublisher.publishEvent(new TaskChangedEvent(
+                type, task.getId(), task.getProject().getId(), user.getId(),
+                previousStatus, deleted ? null : task.getStatus(),
+                previousCompletedAt, deleted ? null : task.getCompletedAt()));
+        eventPublisher.publishEvent(new ContentChangedEvent(
+                ContentChangedEvent.Type.valueOf(type.name()), ContentChangedEvent.Kind.TASK,
+                task.getId(), user.getId(), task.getProject().getId(),
+                deleted ? null : task.getTitle(), deleted ? null : task.getDescription()));
+    }
 }
@@ -0,0 +1,149 @@
+package com.tamdao.my_task_be.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tamdao.my_task_be.exception.BadRequestException;
+import com.tamdao.my_task_be.repository.TransactionRepository;
+import com.tamdao.my_task_be.security.CurrentUserProvider;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// Streams transactions as CSV or NDJSON from a MySQL cursor, so memory does not grow with row count
+@Service
+@RequiredArgsConstructor
+public class TransactionExportService {
+    
+    private static final int FLUSH_EVERY_ROWS = 1000;
+    
+    private final TransactionRepository transactionRepository;
+    private final CurrentUserProvider currentUserProvider;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    
+    public enum ExportFormat {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+        
+        private final String contentType;
+        private final String extension;
+        
+        ExportFormat(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+        
+        public String getContentType() {
+            return contentType;
+        }
+        
+        public String getExtension() {
+            return extension;
+        }
+        
+        public static ExportFormat parse(String value) {
+            try {
+                return ExportFormat.valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Định dạng xuất không hỗ trợ: " + value);
+            }
+        }
+    }
+    
+    public StreamingResponseBody export(LocalDate startDate, LocalDate endDate, ExportFormat format) {
+        // Resolve the user on the request thread; writing runs on the MVC async executor
+        Long userId = currentUserProvider.getCurrentUserId();
+        return out -> transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<TransactionRepository.ExportRow> rows =
+                         transactionRepository.streamForExport(userId, startDate, endDate)) {
+                if (format == ExportFormat.CSV) {
+                    writeCsv(rows.iterator(), out);
+                } else {
+                    writeNdjson(rows.iterator(), out);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+    
+    private void writeCsv(Iterator<TransactionRepository.ExportRow> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        // BOM so Excel reads Vietnamese text correctly
+        writer.write('\uFEFF');
+        writer.write("id,date,type,amount,category,note,description\n");
+        int count = 0;
+        while (rows.hasNext()) {
+            TransactionRepository.ExportRow row = rows.next();
+            writer.write(String.valueOf(row.getId()));
+            writer.write(',');
+            writer.write(row.getTransactionDate().toString());
+            writer.write(',');
+            writer.write(row.getType().name());
+            writer.write(',');
+            writer.write(row.getAmount().toPlainString());
+            writer.write(',');
+            writeCsvField(writer, row.getCategoryName());
+            writer.write(',');
+            writeCsvField(writer, row.getNote());
+            writer.write(',');
+            writeCsvField(writer, row.getDescription());
+            writer.write('\n');
+            if (++count % FLUSH_EVERY_ROWS == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+    }
+    
+    private void writeNdjson(Iterator<TransactionRepository.ExportRow> rows, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        // Each line already ends with '\n', so drop the default " " root separator
+        generator.setRootValueSeparator(null);
+        int count = 0;
+        while (rows.hasNext()) {
+            TransactionRepository.ExportRow row = rows.next();
+            generator.writeStartObject();
+            generator.writeNumberField("id", row.getId());
+            generator.writeStringField("date", row.getTransactionDate().toString());
+            generator.writeStringField("type", row.getType().name());
+            generator.writeNumberField("amount", row.getAmount());
+            generator.writeStringField("category", row.getCategoryName());
+            generator.writeStringField("note", row.getNote());
+            generator.writeStringField("description", row.getDescription());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            if (++count % FLUSH_EVERY_ROWS == 0) {
+                generator.flush();
+            }
+        }
+        generator.flush();
+    }
+    
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,322 @@
+package com.tamdao.my_task_be.service;
+
+import com.tamdao.my_task_be.dto.response.TransactionImportResponse;
+import com.tamdao.my_task_be.entity.FinanceCategory;
+import com.tamdao.my_task_be.entity.FinanceMonthlyRollup;
+import com.tamdao.my_task_be.entity.Transaction;
+import com.tamdao.my_task_be.event.TransactionsImportedEvent;
+import com.tamdao.my_task_be.exception.BadRequestException;
+import com.tamdao.my_task_be.repository.FinanceCategoryRepository;
+import com.tamdao.my_task_be.repository.FinanceMonthlyRollupRepository;
+import com.tamdao.my_task_be.security.CurrentUserProvider;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// CSV import: categories are cached per request and rows are written with a JDBC batch
+@Service
+@RequiredArgsConstructor
+public class TransactionImportService {
+    
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 200;
+    private static final int MAX_TEXT_LENGTH = 255;
+    // Limits of a DECIMAL(15,2) column
+    private static final int MAX_AMOUNT_SCALE = 2;
+    private static final BigDecimal MAX_AMOUNT = new BigDecimal("9999999999999.99");
+    private static final DateTimeFormatter SLASH_DATE = DateTimeFormatter.ofPattern("d/M/yyyy");
+    private static final String INSERT_SQL = "INSERT INTO transactions " +
+            "(amount, type, description, note, category_id, user_id, transaction_date, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, NOW())";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final FinanceCategoryRepository categoryRepository;
+    private final FinanceMonthlyRollupRepository rollupRepository;
+    private final CurrentUserProvider currentUserProvider;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    @Transactional
+    public TransactionImportResponse importCsv(InputStream input) {
+        Long userId = currentUserProvider.getCurrentUserId();
+        
+        // Category cache for the whole request, keyed by lower-cased name
+        Map<String, FinanceCategory> categories = new HashMap<>();
+        for (FinanceCategory category : categoryRepository.findByUserIdOrUserIdIsNullOrderByNameAsc(userId)) {
+            categories.putIfAbsent(normalize(category.getName()), category);
+        }
+        
+        Map<RollupKey, RollupDelta> rollup = new HashMap<>();
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        List<TransactionImportResponse.RowError> errors = new ArrayList<>();
+        int total = 0;
+        int imported = 0;
+        int failed = 0;
+        
+        try (CsvReader reader = new CsvReader(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)))) {
+            Map<String, Integer> columns = readHeader(reader.next());
+            List<String> fields;
+            while ((fields = reader.next()) != null) {
+                if (fields.size() == 1 && fields.get(0).isBlank()) {
+                    continue;
+                }
+                total++;
+                try {
+                    ParsedRow row = parseRow(fields, columns, categories);
+                    batch.add(new Object[]{row.amount, row.type.name(), row.description, row.note,
+                            row.category.getId(), userId, Date.valueOf(row.date)});
+                    rollup.computeIfAbsent(new RollupKey(FinanceMonthlyRollup.periodOf(row.date),
+                            row.category.getId(), row.type), key -> new RollupDelta()).add(row.amount);
+                    if (batch.size() >= BATCH_SIZE) {
+                        imported += flush(batch);
+                    }
+                } catch (BadRequestException e) {
+                    failed++;
+                    if (errors.size() < MAX_REPORTED_ERRORS) {
+                        errors.add(new TransactionImportResponse.RowError(reader.getLineNumber(), e.getMessage()));
+                    }
+                }
+            }
+            imported += flush(batch);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        
+        // The bulk insert bypasses FinanceService, so apply the rollup per (month, category, type)
+        rollup.forEach((key, delta) -> rollupRepository.applyDelta(userId, key.period, key.categoryId,
+                key.type.name(), delta.amount, delta.count));
+        if (imported > 0) {
+            eventPublisher.publishEvent(new TransactionsImportedEvent(userId, imported));
+        }
+        
+        return TransactionImportResponse.builder()
+                .totalRows(total)
+                .importedRows(imported)
+                .failedRows(failed)
+                .errors(errors)
+                .build();
+    }
+    
+    private int flush(List<Object[]> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        int size = batch.size();
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+        batch.clear();
+        return size;
+    }
+    
+    private Map<String, Integer> readHeader(List<String> header) {
+        if (header == null) {
+            throw new BadRequestException("File CSV rỗng");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(normalize(header.get(i).replace("\uFEFF", "")), i);
+        }
+        for (String required : List.of("date", "amount", "category")) {
+            if (!columns.containsKey(required)) {
+                throw new BadRequestException("Thiếu cột bắt buộc: " + required);
+            }
+        }
+        return columns;
+    }
+    
+    private ParsedRow parseRow(List<String> fields, Map<String, Integer> columns,
+                               Map<String, FinanceCategory> categories) {
+        ParsedRow row = new ParsedRow();
+        row.date = parseDate(field(fields, columns, "date"));
+        
+        String amount = field(fields, columns, "amount");
+        try {
+            row.amount = new BigDecimal(amount.replace(" ", ""));
+        } catch (NumberFormatException | NullPointerException e) {
+            throw new BadRequestException("Số tiền không hợp lệ: " + amount);
+        }
+        if (row.amount.signum() <= 0) {
+            throw new BadRequestException("Số tiền phải lớn hơn 0");
+        }
+        if (row.amount.stripTrailingZeros().scale() > MAX_AMOUNT_SCALE) {
+            throw new BadRequestException("Số tiền chỉ được có tối đa " + MAX_AMOUNT_SCALE + " chữ số thập phân: " + amount);
+        }
+        if (row.amount.compareTo(MAX_AMOUNT) > 0) {
+            throw new BadRequestException("Số tiền quá lớn: " + amount);
+        }
+        
+        String categoryName = field(fields, columns, "category");
+        row.category = categoryName != null ? categories.get(normalize(categoryName)) : null;
+        if (row.category == null) {
+            throw new BadRequestException("Không tìm thấy danh mục: " + categoryName);
+        }
+        
+        String type = field(fields, columns, "type");
+        if (type == null || type.isBlank()) {
+            row.type = Transaction.TransactionType.valueOf(row.category.getType().name());
+        } else {
+            try {
+                row.type = Transaction.TransactionType.valueOf(type.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Loại giao dịch không hợp lệ: " + type);
+            }
+        }
+        
+        row.note = text(fields, columns, "note", "Ghi chú");
+        row.description = text(fields, columns, "description", "Mô tả");
+        return row;
+    }
+    
+    private static String text(List<String> fields, Map<String, Integer> columns, String name, String label) {
+        String value = field(fields, columns, name);
+        if (value != null && value.length() > MAX_TEXT_LENGTH) {
+            throw new BadRequestException(label + " dài quá " + MAX_TEXT_LENGTH + " ký tự");
+        }
+        return value;
+    }
+    
+    private static LocalDate parseDate(String value) {
+        if (value == null || value.isBlank()) {
+            throw new BadRequestException("Thiếu ngày giao dịch");
+        }
+        String trimmed = value.trim();
+        try {
+            return trimmed.contains("/") ? LocalDate.parse(trimmed, SLASH_DATE) : LocalDate.parse(trimmed);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Ngày không hợp lệ: " + value);
+        }
+    }
+    
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+    
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private static class ParsedRow {
+        LocalDate date;
+        BigDecimal amount;
+        FinanceCategory category;
+        Transaction.TransactionType type;
+        String note;
+        String description;
+    }
+    
+    private record RollupKey(int period, Long categoryId, Transaction.TransactionType type) {
+    }
+    
+    private static class RollupDelta {
+        BigDecimal amount = BigDecimal.ZERO;
+        int count;
+        
+        void add(BigDecimal value) {
+            amount = amount.add(value);
+            count++;
+        }
+    }
+    
+    // Minimal RFC 4180 reader: quoted fields, doubled quotes and line breaks inside quotes
+    private static class CsvReader implements AutoCloseable {
+        private final Reader reader;
+        private int lineNumber;
+        private int pending = -2;
+        
+        CsvReader(Reader reader) {
+            this.reader = reader;
+        }
+        
+        int getLineNumber() {
+            return lineNumber;
+        }
+        
+        List<String> next() throws IOException {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            lineNumber++;
+            List<String> fields = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        break;
+                    }
+                    if (c == '"') {
+                        int next = read();
+                        if (next == '"') {
+                            current.append('"');
+                        } else {
+                            quoted = false;
+                            c = next;
+                            continue;
+                        }
+                    } else {
+                        if (c == '\n') {
+                            lineNumber++;
+                        }
+                        current.append((char) c);
+                    }
+                } else if (c == '"' && current.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(current.toString());
+                    current.setLength(0);
+                } else if (c == '\r') {
+                    int next = read();
+                    if (next != '\n') {
+                        pending = next;
+                    }
+                    break;
+                } else if (c == '\n' || c == -1) {
+                    break;
+                } else {
+                    current.append((char) c);
+                }
+                c = read();
+            }
+            fields.add(current.toString());
+            return fields;
+        }
+        
+        private int read() throws IOException {
+            if (pending != -2) {
+                int c = pending;
+                pending = -2;
+                return c;
+            }
+            return reader.read();
+        }
+        
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.tamdao.my_task_be.service;
+
+import com.tamdao.my_task_be.dto.response.TypeaheadItemResponse;
+import com.tamdao.my_task_be.event.ContentChangedEvent;
+import com.tamdao.my_task_be.util.TextFolding;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Per-user trie over folded title words; breadth-first traversal returns shorter matches first
+final class TypeaheadIndex {
+    
+    // Matches collected before ranking, as a multiple of limit
+    private static final int RANK_WINDOW = 4;
+    
+    private final Node root = new Node();
+    private final Map<Key, Entry> entries = new HashMap<>();
+    
+    synchronized void put(ContentChangedEvent.Kind kind, Long id, Long parentId, String title) {
+        Key key = new Key(kind, id);
+        remove(key);
+        if (title == null || title.isBlank()) {
+            return;
+        }
+        String normalized = TextFolding.normalize(title);
+        Entry entry = new Entry(key, parentId, normalized, TextFolding.fold(normalized),
+                new ArrayList<>(new LinkedHashSet<>(TextFolding.terms(normalized))));
+        entries.put(key, entry);
+        for (String word : entry.words) {
+            Node node = root;
+            for (int i = 0; i < word.length(); i++) {
+                node = node.children.computeIfAbsent(word.charAt(i), c -> new Node());
+            }
+            node.keys.add(key);
+        }
+    }
+    
+    synchronized void remove(ContentChangedEvent.Kind kind, Long id) {
+        remove(new Key(kind, id));
+    }
+    
+    synchronized void removeByParent(ContentChangedEvent.Kind kind, Long parentId) {
+        List<Key> children = entries.values().stream()
+                .filter(e -> e.key.kind == kind && parentId.equals(e.parentId))
+                .map(e -> e.key)
+                .toList();
+        children.forEach(this::remove);
+    }
+    
+    // Walks the trie by the longest term and filters the other terms during traversal
+    synchronized List<TypeaheadItemResponse> search(List<String> terms, int limit) {
+        String pivot = terms.stream().max(Comparator.comparingInt(String::length)).orElseThrow();
+        Node node = root;
+        for (int i = 0; i < pivot.length() && node != null; i++) {
+            node = node.children.get(pivot.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+        
+        int wanted = limit * RANK_WINDOW;
+        Set<Key> seen = new HashSet<>();
+        List<Entry> matches = new ArrayList<>();
+        ArrayDeque<Node> queue = new ArrayDeque<>();
+        queue.add(node);
+        while (!queue.isEmpty() && matches.size() < wanted) {
+            Node current = queue.poll();
+            for (Key key : current.keys) {
+                Entry entry = entries.get(key);
+                if (seen.add(key) && terms.stream().allMatch(term ->
+                        entry.words.stream().anyMatch(word -> word.startsWith(term)))) {
+                    matches.add(entry);
+                }
+            }
+            queue.addAll(current.children.values());
+        }
+        
+        String phrase = String.join(" ", terms);
+        return matches.stream()
+                .sorted(Comparator.<Entry>comparingInt(entry -> entry.foldedTitle.startsWith(phrase) ? 0 : 1)
+                        .thenComparingInt(entry -> entry.title.length()))
+                .limit(limit)
+                .map(entry -> TypeaheadItemResponse.builder()
+                        .kind(entry.key.kind.name())
+                        .id(entry.key.id)
+                        .parentId(entry.parentId)
+                        .title(entry.title)
+                        .build())
+                .toList();
+    }
+    
+    private void remove(Key key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) {
+            return;
+        }
+        for (String word : entry.words) {
+            Node[] path = new Node[word.length() + 1];
+            path[0] = root;
+            for (int i = 0; i < word.length(); i++) {
+                path[i + 1] = path[i].children.get(word.charAt(i));
+                if (path[i + 1] == null) {
+                    break;
+                }
+            }
+            if (path[word.length()] == null) {
+                continue;
+            }
+            path[word.length()].keys.remove(key);
+            // Prune nodes left without entries or children, from the word's end upwards
+            for (int i = word.length(); i > 0 && path[i].keys.isEmpty() && path[i].children.isEmpty(); i--) {
+                path[i - 1].children.remove(word.charAt(i - 1));
+            }
+        }
+    }
+    
+    private record Key(ContentChangedEvent.Kind kind, Long id) {
+    }
+    
+    private record Entry(Key key, Long parentId, String title, String foldedTitle, List<String> words) {
+    }
+    
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private final Set<Key> keys = new LinkedHashSet<>(2);
+    }
+}
@@ -0,0 +1,95 @@
+package com.tamdao.my_task_be.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tamdao.my_task_be.dto.response.TypeaheadItemResponse;
+import com.tamdao.my_task_be.event.ContentChangedEvent;
+import com.tamdao.my_task_be.repository.GoalRepository;
+import com.tamdao.my_task_be.repository.NoteRepository;
+import com.tamdao.my_task_be.repository.ProjectRepository;
+import com.tamdao.my_task_be.repository.TaskRepository;
+import com.tamdao.my_task_be.repository.TitleRow;
+import com.tamdao.my_task_be.security.CurrentUserProvider;
+import com.tamdao.my_task_be.util.TextFolding;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+
+// Per-user tries, loaded lazily, updated after commit and evicted when idle or over capacity
+@Service
+public class TypeaheadService {
+    
+    private static final int DEFAULT_LIMIT = 8;
+    private static final int MAX_LIMIT = 20;
+    
+    private final TaskRepository taskRepository;
+    private final ProjectRepository projectRepository;
+    private final NoteRepository noteRepository;
+    private final GoalRepository goalRepository;
+    private final CurrentUserProvider currentUserProvider;
+    private final Cache<Long, TypeaheadIndex> indexes;
+    
+    public TypeaheadService(TaskRepository taskRepository,
+                            ProjectRepository projectRepository,
+                            NoteRepository noteRepository,
+                            GoalRepository goalRepository,
+                            CurrentUserProvider currentUserProvider,
+                            @Value("${app.typeahead.max-users:2000}") long maxUsers,
+                            @Value("${app.typeahead.idle-ttl:30m}") Duration idleTtl) {
+        this.taskRepository = taskRepository;
+        this.projectRepository = projectRepository;
+        this.noteRepository = noteRepository;
+        this.goalRepository = goalRepository;
+        this.currentUserProvider = currentUserProvider;
+        this.indexes = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(idleTtl)
+                .build();
+    }
+    
+    public List<TypeaheadItemResponse> suggest(String query, Integer limit) {
+        List<String> terms = TextFolding.terms(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        int size = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        Long userId = currentUserProvider.getCurrentUserId();
+        return indexes.get(userId, this::load).search(terms, size);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContentChanged(ContentChangedEvent event) {
+        // Only update loaded tries; computeIfPresent waits if the user's trie is being loaded
+        indexes.asMap().computeIfPresent(event.getUserId(), (userId, index) -> {
+            if (event.getType() == ContentChangedEvent.Type.DELETED) {
+                index.remove(event.getKind(), event.getId());
+                if (event.getKind() == ContentChangedEvent.Kind.PROJECT) {
+                    index.removeByParent(ContentChangedEvent.Kind.TASK, event.getId());
+                }
+            } else {
+                index.put(event.getKind(), event.getId(), event.getParentId(), event.getTitle());
+            }
+            return index;
+        });
+    }
+    
+    private TypeaheadIndex load(Long userId) {
+        TypeaheadIndex index = new TypeaheadIndex();
+        for (TaskRepository.TaskTitle row : taskRepository.findTitlesByUserId(userId)) {
+            index.put(ContentChangedEvent.Kind.TASK, row.getId(), row.getProjectId(), row.getTitle());
+        }
+        add(index, ContentChangedEvent.Kind.PROJECT, projectRepository.findTitlesByUserId(userId));
+        add(index, ContentChangedEvent.Kind.NOTE, noteRepository.findTitlesByUserId(userId));
+        add(index, ContentChangedEvent.Kind.GOAL, goalRepository.findTitlesByUserId(userId));
+        return index;
+    }
+    
+    private static void add(TypeaheadIndex index, ContentChangedEvent.Kind kind, List<TitleRow> rows) {
+        for (TitleRow row : rows) {
+            index.put(kind, row.getId(), null, row.getTitle());
+        }
+    }
+}
@@ -2,14 +2,17 @@ package com.tamdao.my_task_be.service;
 
 import com.tamdao.my_task_be.dto.request.WorkspaceRequest;
 import com.tamdao.my_task_be.dto.response.WorkspaceResponse;
+import com.tamdao.my_task_be.entity.Project;
 import com.tamdao.my_task_be.entity.User;
 import com.tamdao.my_task_be.entity.Workspace;
+import com.tamdao.my_task_be.event.ContentChangedEvent;
+import com.tamdao.my_task_be.event.NameChangedEvent;
 import com.tamdao.my_task_be.exception.BadRequestException;
 import com.tamdao.my_task_be.exception.ResourceNotFoundException;
-import com.tamdao.my_task_be.repository.UserRepository;
 import com.tamdao.my_task_be.repository.WorkspaceRepository;
+import com.tamdao.my_task_be.security.CurrentUserProvider;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,12 +24,11 @@ import java.util.stream.Collectors;
 public class WorkspaceService {
     
     private final WorkspaceRepository workspaceRepository;
-    private final UserRepository userRepository;
+    private final CurrentUserProvider currentUserProvider;
+    private final ApplicationEventPublisher eventPublisher;
     
     private User getCurrentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new BadRequestException("Không tìm thấy người dùng"));
+        return currentUserProvider.getCurrentUser();
     }
     
     public List<WorkspaceResponse> getAllWorkspaces() {
@@ -61,6 +63,7 @@ public class WorkspaceService {
                 .build();
         
         workspace = workspaceRepository.save(workspace);
+        eventPublisher.publishEvent(new NameChangedEvent(NameChangedEvent.Kind.WORKSPACE, user.getId()));
         return WorkspaceResponse.fromEntity(workspace);
     }
     
@@ -82,6 +85,7 @@ public class WorkspaceService {
         }
         
         workspace = workspaceRepository.save(workspace);
+        eventPublisher.publishEvent(new NameChangedEvent(NameChangedEvent.Kind.WORKSPACE, user.getId()));
         return WorkspaceResponse.fromEntity(workspace);
     }
     
@@ -96,6 +100,13 @@ public class WorkspaceService {
             throw new BadRequestException("Bạn không có quyền xóa workspace này");
         }
         
+        // Projects and their tasks go with the workspace (cascade), so publish a delete per project first
+        for (Project project : workspace.getProjects()) {
+            eventPublisher.publishEvent(new ContentChangedEvent(ContentChangedEvent.Type.DELETED,
+                    ContentChangedEvent.Kind.PROJECT, project.getId(), user.getId(), null, null, null));
+        }
         workspaceRepository.delete(workspace);
+        eventPublisher.publishEvent(new NameChangedEvent(NameChangedEvent.Kind.WORKSPACE, user.getId()));
+        eventPublisher.publishEvent(new NameChangedEvent(NameChangedEvent.Kind.PROJECT, user.getId()));
     }
 }
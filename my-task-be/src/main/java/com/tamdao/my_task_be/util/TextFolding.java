@@ -0,0 +1,56 @@
+package com.tamdao.my_task_be.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+
+// Strips Vietnamese accents and lower-cases without changing length, so match offsets apply to the original
+public final class TextFolding {
+    
+    private static final char[] TABLE = new char[0x2000];
+    
+    static {
+        for (char c = 0; c < TABLE.length; c++) {
+            String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+            TABLE[c] = Character.toLowerCase(decomposed.charAt(0));
+        }
+        TABLE['đ'] = 'd';
+        TABLE['Đ'] = 'd';
+    }
+    
+    private TextFolding() {
+    }
+    
+    // NFC-normalize displayed text before calling fold
+    public static String normalize(String text) {
+        return text == null ? "" : Normalizer.normalize(text, Normalizer.Form.NFC);
+    }
+    
+    public static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            char c = chars[i];
+            chars[i] = c < TABLE.length ? TABLE[c] : Character.toLowerCase(c);
+        }
+        return new String(chars);
+    }
+    
+    public static List<String> terms(String text) {
+        String folded = fold(normalize(text));
+        List<String> terms = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                terms.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,112 @@
+package com.tamdao.my_task_be.repository;
+
+import com.tamdao.my_task_be.entity.Habit;
+import com.tamdao.my_task_be.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Each check-in commits its own transaction, so the test runs outside the @DataJpaTest transaction
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class HabitLogRepositoryTest {
+
+    private static final int THREADS = 8;
+    private static final int CHECK_INS_PER_THREAD = 25;
+
+    @Autowired
+    private HabitLogRepository habitLogRepository;
+
+    @Autowired
+    private HabitRepository habitRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentCheckInsAccumulateInOneRowPerDay() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Habit habit = transactionTemplate.execute(status -> {
+            User user = userRepository.save(User.builder()
+                    .email("habit-concurrency@test.local")
+                    .password("secret")
+                    .fullName("Habit Concurrency")
+                    .build());
+            return habitRepository.save(Habit.builder().name("Uống nước").user(user).build());
+        });
+        Long habitId = habit.getId();
+        LocalDate today = LocalDate.now();
+        transactionTemplate.executeWithoutResult(status -> habitLogRepository.incrementCount(habitId, today));
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < CHECK_INS_PER_THREAD; i++) {
+                        transactionTemplate.executeWithoutResult(status -> habitLogRepository.incrementCount(habitId, today));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(habitLogRepository.findByHabitIdOrderByCompletedDateDesc(habitId)).hasSize(1);
+        assertThat(habitLogRepository.findCountByHabitIdAndCompletedDate(habitId, today))
+                .isEqualTo(1 + THREADS * CHECK_INS_PER_THREAD);
+    }
+
+    @Test
+    void checkInsOnDifferentDaysKeepSeparateRows() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Long habitId = transactionTemplate.execute(status -> {
+            User user = userRepository.save(User.builder()
+                    .email("habit-days@test.local")
+                    .password("secret")
+                    .fullName("Habit Days")
+                    .build());
+            return habitRepository.save(Habit.builder().name("Đọc sách").user(user).build()).getId();
+        });
+        LocalDate today = LocalDate.now();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            habitLogRepository.incrementCount(habitId, today.minusDays(1));
+            habitLogRepository.incrementCount(habitId, today);
+            habitLogRepository.incrementCount(habitId, today);
+        });
+
+        assertThat(habitLogRepository.findByHabitIdOrderByCompletedDateDesc(habitId)).hasSize(2);
+        assertThat(habitLogRepository.findCountByHabitIdAndCompletedDate(habitId, today)).isEqualTo(2);
+        assertThat(habitLogRepository.findCountByHabitIdAndCompletedDate(habitId, today.minusDays(1))).isEqualTo(1);
+    }
+}
@@ -0,0 +1,110 @@
+package com.tamdao.my_task_be.repository;
+
+import com.tamdao.my_task_be.dto.response.TaskResponse;
+import com.tamdao.my_task_be.entity.Label;
+import com.tamdao.my_task_be.entity.Project;
+import com.tamdao.my_task_be.entity.Task;
+import com.tamdao.my_task_be.entity.User;
+import com.tamdao.my_task_be.entity.Workspace;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Task list queries mapped through TaskResponse.fromEntity take 2 statements regardless of task count
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+class TaskRepositoryTest {
+
+    private static final int TASKS = 20;
+    private static final long EXPECTED_STATEMENTS = 2;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Statistics statistics;
+    private User user;
+    private Project project;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persist(User.builder()
+                .email("tasks@test.local")
+                .password("secret")
+                .fullName("Task Owner")
+                .build());
+        Workspace workspace = entityManager.persist(Workspace.builder().name("Công việc").owner(user).build());
+        project = entityManager.persist(Project.builder().name("Website").workspace(workspace).createdBy(user).build());
+        Label urgent = entityManager.persist(Label.builder().name("Gấp").project(project).build());
+        Label backend = entityManager.persist(Label.builder().name("Backend").project(project).build());
+        for (int i = 0; i < TASKS; i++) {
+            entityManager.persist(Task.builder()
+                    .title("Task " + i)
+                    .project(project)
+                    .assignee(user)
+                    .position(i)
+                    .dueDate(LocalDate.now().plusDays(i))
+                    .labels(new HashSet<>(i % 2 == 0 ? Set.of(urgent, backend) : Set.of(urgent)))
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void projectTasksLoadInConstantStatements() {
+        assertStatements(() -> taskRepository.findByProjectIdOrderByPositionAsc(project.getId()));
+    }
+
+    @Test
+    void userTasksLoadInConstantStatements() {
+        assertStatements(() -> taskRepository.findAllByUserId(user.getId()));
+    }
+
+    @Test
+    void assignedTasksLoadInConstantStatements() {
+        assertStatements(() -> taskRepository.findByAssigneeIdOrderByDueDateAsc(user.getId()));
+    }
+
+    @Test
+    void statusColumnLoadsInConstantStatements() {
+        assertStatements(() -> taskRepository.findByProjectIdAndStatus(project.getId(), Task.TaskStatus.TODO));
+    }
+
+    private void assertStatements(Supplier<List<Task>> query) {
+        statistics.clear();
+
+        List<TaskResponse> responses = query.get().stream()
+                .map(TaskResponse::fromEntity)
+                .collect(Collectors.toList());
+
+        assertThat(responses).hasSize(TASKS);
+        assertThat(responses).allSatisfy(response -> {
+            assertThat(response.getProjectName()).isEqualTo("Website");
+            assertThat(response.getAssigneeName()).isEqualTo("Task Owner");
+            assertThat(response.getLabels()).isNotEmpty();
+        });
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(EXPECTED_STATEMENTS);
+    }
+}
@@ -0,0 +1,102 @@
+package com.tamdao.my_task_be.security;
+
+import com.tamdao.my_task_be.entity.User;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtTokenProviderTest {
+
+    private static final String SECRET = "MyTaskSecretKeyForJWTAuthenticationMustBeAtLeast256BitsLong2024";
+    private static final String OTHER_SECRET = "AnotherSecretKeyForJWTAuthenticationMustBeAtLeast256BitsLong2024";
+
+    private JwtTokenProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        provider = provider(SECRET, 60_000);
+    }
+
+    @Test
+    void validTokenReturnsClaims() {
+        String token = provider.generateAccessToken("user@test.local");
+
+        Claims claims = provider.validateAndGetClaims(token);
+
+        assertThat(claims).isNotNull();
+        assertThat(claims.getSubject()).isEqualTo("user@test.local");
+        assertThat(provider.validateToken(token)).isTrue();
+    }
+
+    @Test
+    void cachedParserValidatesRepeatedly() {
+        String first = provider.generateAccessToken("first@test.local");
+        String second = provider.generateAccessToken("second@test.local");
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(provider.validateAndGetClaims(first).getSubject()).isEqualTo("first@test.local");
+            assertThat(provider.validateAndGetClaims(second).getSubject()).isEqualTo("second@test.local");
+        }
+    }
+
+    @Test
+    void accessTokenForUserCarriesPrincipalClaims() {
+        User user = User.builder().id(42L).email("owner@test.local").password("secret").fullName("Owner").build();
+
+        Claims claims = provider.validateAndGetClaims(provider.generateAccessToken(user));
+        UserPrincipal principal = provider.getPrincipalFromClaims(claims);
+
+        assertThat(principal).isNotNull();
+        assertThat(principal.getId()).isEqualTo(42L);
+        assertThat(principal.getUsername()).isEqualTo("owner@test.local");
+        assertThat(principal.getAuthorities()).extracting("authority").containsExactly("ROLE_USER");
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        String token = provider(SECRET, -1_000).generateAccessToken("user@test.local");
+
+        assertThat(provider.validateAndGetClaims(token)).isNull();
+        assertThat(provider.validateToken(token)).isFalse();
+    }
+
+    @Test
+    void tokenWithModifiedPayloadIsRejected() {
+        String[] parts = provider.generateAccessToken("user@test.local").split("\\.");
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)
+                .replace("user@test.local", "admin@test.local");
+        String tampered = parts[0] + "."
+                + Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8))
+                + "." + parts[2];
+
+        assertThat(provider.validateAndGetClaims(tampered)).isNull();
+    }
+
+    @Test
+    void tokenSignedWithAnotherKeyIsRejected() {
+        String token = provider(OTHER_SECRET, 60_000).generateAccessToken("user@test.local");
+
+        assertThat(provider.validateAndGetClaims(token)).isNull();
+    }
+
+    @Test
+    void malformedOrEmptyTokenIsRejected() {
+        assertThat(provider.validateAndGetClaims("not-a-jwt")).isNull();
+        assertThat(provider.validateAndGetClaims("")).isNull();
+    }
+
+    private static JwtTokenProvider provider(String secret, long expiration) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", secret);
+        ReflectionTestUtils.setField(provider, "jwtExpiration", expiration);
+        ReflectionTestUtils.setField(provider, "refreshExpiration", expiration);
+        provider.init();
+        return provider;
+    }
+}
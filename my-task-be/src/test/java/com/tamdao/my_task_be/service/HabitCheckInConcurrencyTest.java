@@ -0,0 +1,122 @@
+package com.tamdao.my_task_be.service;
+
+import com.tamdao.my_task_be.entity.Habit;
+import com.tamdao.my_task_be.entity.HabitCalendar;
+import com.tamdao.my_task_be.entity.User;
+import com.tamdao.my_task_be.repository.HabitCalendarRepository;
+import com.tamdao.my_task_be.repository.HabitLogRepository;
+import com.tamdao.my_task_be.repository.HabitRepository;
+import com.tamdao.my_task_be.repository.UserRepository;
+import com.tamdao.my_task_be.security.CurrentUserProvider;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+// Two check-ins load the habit at the same version; the later commit must retry and still end consistent
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import({HabitService.class, HabitStreakService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class HabitCheckInConcurrencyTest {
+
+    @Autowired
+    private HabitService habitService;
+
+    @SpyBean
+    private HabitStreakService habitStreakService;
+
+    @Autowired
+    private HabitRepository habitRepository;
+
+    @Autowired
+    private HabitLogRepository habitLogRepository;
+
+    @Autowired
+    private HabitCalendarRepository habitCalendarRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockBean
+    private CurrentUserProvider currentUserProvider;
+
+    @Test
+    void concurrentCheckInsRetryOnVersionConflict() throws Exception {
+        User user = userRepository.save(User.builder()
+                .email("habit-check-in@test.local")
+                .password("secret")
+                .fullName("Habit Check-in")
+                .build());
+        Long habitId = habitRepository.save(Habit.builder().name("Chạy bộ").user(user).build()).getId();
+        when(currentUserProvider.getCurrentUser()).thenReturn(user);
+        LocalDate today = LocalDate.now();
+        habitService.checkIn(habitId, today.minusDays(2));
+
+        // Both first calls load the habit before either writes; the second waits until the first has committed
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch bothLoaded = new CountDownLatch(2);
+        CountDownLatch firstCommitted = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            int call = calls.incrementAndGet();
+            if (call <= 2) {
+                bothLoaded.countDown();
+                assertThat(bothLoaded.await(10, TimeUnit.SECONDS)).isTrue();
+                if (call == 2) {
+                    assertThat(firstCommitted.await(10, TimeUnit.SECONDS)).isTrue();
+                }
+            }
+            return invocation.callRealMethod();
+        }).when(habitStreakService).recordCompletion(any(), any());
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<?>> results = List.of(
+                    pool.submit(() -> {
+                        habitService.checkIn(habitId, today.minusDays(1));
+                        firstCommitted.countDown();
+                    }),
+                    pool.submit(() -> {
+                        habitService.checkIn(habitId, today);
+                        firstCommitted.countDown();
+                    }));
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(calls.get()).isEqualTo(3);
+        for (int daysAgo = 0; daysAgo <= 2; daysAgo++) {
+            LocalDate day = today.minusDays(daysAgo);
+            assertThat(habitLogRepository.findCountByHabitIdAndCompletedDate(habitId, day)).isEqualTo(1);
+            HabitCalendar calendar = habitCalendarRepository.findByHabitIdAndYear(habitId, day.getYear()).orElseThrow();
+            assertThat(calendar.isCompleted(day)).isTrue();
+        }
+        Habit habit = habitRepository.findById(habitId).orElseThrow();
+        assertThat(habit.getCurrentStreak()).isEqualTo(3);
+        assertThat(habit.getLongestStreak()).isEqualTo(3);
+    }
+}
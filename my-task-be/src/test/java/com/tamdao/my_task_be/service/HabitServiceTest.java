@@ -0,0 +1,96 @@
+package com.tamdao.my_task_be.service;
+
+import com.tamdao.my_task_be.dto.response.HabitResponse;
+import com.tamdao.my_task_be.entity.Habit;
+import com.tamdao.my_task_be.entity.HabitLog;
+import com.tamdao.my_task_be.entity.User;
+import com.tamdao.my_task_be.security.CurrentUserProvider;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+// The habit list with today's counts takes 2 statements regardless of habit count
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import(HabitService.class)
+class HabitServiceTest {
+
+    private static final int HABITS = 12;
+    private static final long EXPECTED_STATEMENTS = 2;
+
+    @Autowired
+    private HabitService habitService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @MockBean
+    private CurrentUserProvider currentUserProvider;
+
+    @MockBean
+    private HabitStreakService habitStreakService;
+
+    private Statistics statistics;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        today = LocalDate.now();
+        User user = entityManager.persist(User.builder()
+                .email("habits@test.local")
+                .password("secret")
+                .fullName("Habit Owner")
+                .build());
+        for (int i = 0; i < HABITS; i++) {
+            Habit habit = entityManager.persist(Habit.builder()
+                    .name("Habit " + i)
+                    .targetPerDay(2)
+                    .user(user)
+                    .build());
+            // Even habits: i % 3 + 1 check-ins today; odd habits only have a log yesterday
+            LocalDate day = i % 2 == 0 ? today : today.minusDays(1);
+            entityManager.persist(HabitLog.builder().habit(habit).completedDate(day).count(i % 3 + 1).build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        when(currentUserProvider.getCurrentUser()).thenReturn(user);
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void habitListLoadsTodayCountsInConstantStatements() {
+        statistics.clear();
+
+        List<HabitResponse> responses = habitService.getAllHabits(today);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(EXPECTED_STATEMENTS);
+        assertThat(responses).hasSize(HABITS);
+        Map<String, HabitResponse> byName = responses.stream()
+                .collect(Collectors.toMap(HabitResponse::getName, response -> response));
+        for (int i = 0; i < HABITS; i++) {
+            HabitResponse response = byName.get("Habit " + i);
+            int expectedCount = i % 2 == 0 ? i % 3 + 1 : 0;
+            assertThat(response.getCompletedCountToday()).isEqualTo(expectedCount);
+            assertThat(response.getIsCompletedToday()).isEqualTo(expectedCount >= 2);
+        }
+    }
+}